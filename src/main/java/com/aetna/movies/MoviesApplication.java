@@ -1,12 +1,23 @@
 package com.aetna.movies;
 
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import com.aetna.movies.ingest.MovieImportRunner;
 
 @SpringBootApplication
 public class MoviesApplication {
 
     public static void main(String[] args) {
+        if (MovieImportRunner.isImport(args)) {
+            // Bulk import runs without the web server or the in-memory catalog and exits when done
+            System.exit(SpringApplication.exit(new SpringApplicationBuilder(MoviesApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .properties("movies.catalog.load-on-startup=false")
+                    .run(args)));
+        }
         SpringApplication.run(MoviesApplication.class, args);
     }
 
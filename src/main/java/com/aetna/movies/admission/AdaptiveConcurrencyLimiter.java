@@ -0,0 +1,118 @@
+package com.aetna.movies.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+// Gradient style limit: the limit follows longRtt / shortRtt, so it shrinks as soon as
+// recent latency rises above the long-term baseline and grows by roughly sqrt(limit)
+// while latency stays flat.
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double LONG_RTT_DECAY = 0.05;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder windowRttSum = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    private volatile double limit;
+    private volatile long windowStart;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long windowMillis) {
+        this(initialLimit, minLimit, maxLimit, windowMillis, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long windowMillis, LongSupplier nanoClock) {
+        if (minLimit <= 0 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 0 < min <= initial <= max");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.nanoClock = nanoClock;
+        this.windowStart = nanoClock.getAsLong();
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                peakInFlight.accumulateAndGet(current + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    public void release(long rttNanos) {
+        inFlight.decrementAndGet();
+        windowRttSum.add(rttNanos);
+        windowSamples.increment();
+
+        long now = nanoClock.getAsLong();
+        if (now - windowStart >= windowNanos && updateLock.tryLock()) {
+            try {
+                if (now - windowStart >= windowNanos) {
+                    updateLimit(now);
+                }
+            } finally {
+                updateLock.unlock();
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void updateLimit(long now) {
+        long samples = windowSamples.sumThenReset();
+        long rttSum = windowRttSum.sumThenReset();
+        int peak = peakInFlight.getAndSet(inFlight.get());
+        windowStart = now;
+        if (samples == 0) {
+            return;
+        }
+
+        double shortRttNanos = (double) rttSum / samples;
+        if (longRttNanos == 0) {
+            longRttNanos = shortRttNanos;
+        } else {
+            longRttNanos = longRttNanos * (1 - LONG_RTT_DECAY) + shortRttNanos * LONG_RTT_DECAY;
+        }
+        // Let the baseline catch up quickly after a latency spike has cleared
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double current = limit;
+        // Traffic did not come close to the limit, so latency says nothing about it
+        if (peak < current / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRttNanos / shortRttNanos));
+        double target = current * gradient + Math.sqrt(current);
+        double smoothed = current * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+    }
+}
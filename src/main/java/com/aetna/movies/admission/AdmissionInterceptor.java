@@ -0,0 +1,91 @@
+package com.aetna.movies.admission;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.aetna.movies.config.ClientRefIdHolder;
+import com.aetna.movies.exception.ServiceOverloadedException;
+import com.aetna.movies.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String ADMITTED_AT_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".admittedAt";
+
+    private final boolean enabled;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final ClientRateLimiter rateLimiter;
+    private final Counter rateLimitedCounter;
+    private final Counter overloadedCounter;
+
+    public AdmissionInterceptor(MeterRegistry meterRegistry,
+                                @Value("${movies.admission.enabled:true}") boolean enabled,
+                                @Value("${movies.admission.concurrency.initial-limit:20}") int initialLimit,
+                                @Value("${movies.admission.concurrency.min-limit:4}") int minLimit,
+                                @Value("${movies.admission.concurrency.max-limit:200}") int maxLimit,
+                                @Value("${movies.admission.concurrency.window-millis:1000}") long windowMillis,
+                                @Value("${movies.admission.rate-limit.permits-per-second:50}") double permitsPerSecond,
+                                @Value("${movies.admission.rate-limit.burst:100}") int burst,
+                                @Value("${movies.admission.rate-limit.stripes:16}") int stripes,
+                                @Value("${movies.admission.rate-limit.max-clients-per-stripe:1024}") int maxClientsPerStripe) {
+        this.enabled = enabled;
+        this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, windowMillis);
+        this.rateLimiter = new ClientRateLimiter(permitsPerSecond, burst, stripes, maxClientsPerStripe);
+        this.rateLimitedCounter = Counter.builder("movies.admission.rejected")
+                .description("Requests rejected by admission control")
+                .tag("reason", "rate_limited")
+                .register(meterRegistry);
+        this.overloadedCounter = Counter.builder("movies.admission.rejected")
+                .description("Requests rejected by admission control")
+                .tag("reason", "concurrency_limit")
+                .register(meterRegistry);
+        Gauge.builder("movies.admission.concurrency.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("movies.admission.concurrency.inflight", concurrencyLimiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests currently admitted")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // An async dispatch continues a request that was admitted on its first dispatch
+        if (!enabled || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        String clientRefId = ClientRefIdHolder.getClientRefId();
+        String clientKey = clientRefId != null ? clientRefId : request.getRemoteAddr();
+        if (!rateLimiter.tryAcquire(clientKey)) {
+            rateLimitedCounter.increment();
+            log.debug("Rate limit exceeded for client {}", clientKey);
+            throw new TooManyRequestsException("Rate limit exceeded, please retry later");
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            // Shedding load is not the client's doing, so it keeps its quota
+            rateLimiter.release(clientKey);
+            overloadedCounter.increment();
+            log.debug("Concurrency limit {} reached", concurrencyLimiter.getLimit());
+            throw new ServiceOverloadedException("Service is overloaded, please retry later");
+        }
+        request.setAttribute(ADMITTED_AT_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ADMITTED_AT_ATTRIBUTE) instanceof Long admittedAt) {
+            request.removeAttribute(ADMITTED_AT_ATTRIBUTE);
+            concurrencyLimiter.release(System.nanoTime() - admittedAt);
+        }
+    }
+}
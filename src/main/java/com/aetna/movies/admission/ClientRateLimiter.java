@@ -0,0 +1,100 @@
+package com.aetna.movies.admission;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Token buckets keyed by client, spread over independently locked stripes so unrelated
+// clients rarely contend. Each stripe keeps only its most recently seen clients.
+public class ClientRateLimiter {
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final double permitsPerNano;
+    private final double burst;
+    private final LongSupplier nanoClock;
+
+    public ClientRateLimiter(double permitsPerSecond, int burst, int stripes, int maxClientsPerStripe) {
+        this(permitsPerSecond, burst, stripes, maxClientsPerStripe, System::nanoTime);
+    }
+
+    ClientRateLimiter(double permitsPerSecond, int burst, int stripes, int maxClientsPerStripe, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || burst <= 0 || stripes <= 0 || maxClientsPerStripe <= 0) {
+            throw new IllegalArgumentException("Rate limiter settings must be positive");
+        }
+        int stripeCount = Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new Stripe[Math.max(1, stripeCount)];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Stripe(maxClientsPerStripe);
+        }
+        this.stripeMask = this.stripes.length - 1;
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.nanoClock = nanoClock;
+    }
+
+    public boolean tryAcquire(String clientKey) {
+        long now = nanoClock.getAsLong();
+        Stripe stripe = stripe(clientKey);
+        synchronized (stripe) {
+            TokenBucket bucket = stripe.buckets.get(clientKey);
+            if (bucket == null) {
+                bucket = new TokenBucket(burst, now);
+                stripe.buckets.put(clientKey, bucket);
+            }
+            return bucket.tryAcquire(now, permitsPerNano, burst);
+        }
+    }
+
+    // Gives back a permit taken by tryAcquire for a request that was then rejected for another reason
+    public void release(String clientKey) {
+        Stripe stripe = stripe(clientKey);
+        synchronized (stripe) {
+            TokenBucket bucket = stripe.buckets.get(clientKey);
+            if (bucket != null) {
+                bucket.tokens = Math.min(burst, bucket.tokens + 1);
+            }
+        }
+    }
+
+    private Stripe stripe(String clientKey) {
+        int hash = clientKey.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & stripeMask];
+    }
+
+    private static final class Stripe {
+        private final Map<String, TokenBucket> buckets;
+
+        private Stripe(int maxClients) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+                    return size() > maxClients;
+                }
+            };
+        }
+    }
+
+    private static final class TokenBucket {
+        private double tokens;
+        private long lastRefill;
+
+        private TokenBucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefill = now;
+        }
+
+        private boolean tryAcquire(long now, double permitsPerNano, double burst) {
+            if (now > lastRefill) {
+                tokens = Math.min(burst, tokens + (now - lastRefill) * permitsPerNano);
+                lastRefill = now;
+            }
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package com.aetna.movies.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.ToDoubleFunction;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import com.aetna.movies.dto.MovieFilter;
+import com.aetna.movies.entity.MovieEntity;
+
+// Compressed (Roaring) bitmaps of movieIds per attribute value. Filters become bitmap AND/OR, and
+// a page is read off a precomputed title order, stopping once it is full. After seal() bitmaps are
+// copied on write, so readers never see a bitmap that is being modified.
+public class CatalogBitmapIndex implements CatalogIndex {
+
+    // Filters nested deeper than this are rejected rather than risking the evaluation stack
+    public static final int MAX_FILTER_DEPTH = 16;
+
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+    private static final int BUCKETS_PER_DOUBLING_BITS = 3;
+
+    private final Map<String, RoaringBitmap> byGenre = new ConcurrentHashMap<>();
+    private final Map<String, RoaringBitmap> byLanguage = new ConcurrentHashMap<>();
+    private final Map<String, RoaringBitmap> byStatus = new ConcurrentHashMap<>();
+    private final NavigableMap<Integer, RoaringBitmap> byYear = new ConcurrentSkipListMap<>();
+    private final RangeIndex byRuntime = new RangeIndex();
+    private final RangeIndex byBudget = new RangeIndex();
+    private final Map<Integer, String> titles = new ConcurrentHashMap<>();
+
+    private volatile RoaringBitmap all = new RoaringBitmap();
+    private volatile TitleRanks titleRanks;
+    private volatile boolean sealed;
+    // Bumped with every title change under this monitor, so ranks built across a change are not published
+    private long modifications;
+
+    @Override
+    public void add(MovieEntity movie) {
+        int id = movie.getMovieId();
+        for (String genre : MovieAttributes.genres(movie)) {
+            update(byGenre, genre, id, true);
+        }
+        update(byLanguage, MovieAttributes.language(movie), id, true);
+        update(byStatus, status(movie), id, true);
+        update(byYear, MovieAttributes.year(movie), id, true);
+        byRuntime.update(movie.getRuntime(), id, true);
+        byBudget.update(movie.getBudget(), id, true);
+        all = modify(all, id, true);
+        titles.put(id, movie.getTitle() != null ? movie.getTitle() : "");
+        titlesChanged();
+    }
+
+    @Override
+    public void remove(MovieEntity movie) {
+        int id = movie.getMovieId();
+        for (String genre : MovieAttributes.genres(movie)) {
+            update(byGenre, genre, id, false);
+        }
+        update(byLanguage, MovieAttributes.language(movie), id, false);
+        update(byStatus, status(movie), id, false);
+        update(byYear, MovieAttributes.year(movie), id, false);
+        byRuntime.update(movie.getRuntime(), id, false);
+        byBudget.update(movie.getBudget(), id, false);
+        all = modify(all, id, false);
+        titles.remove(id);
+        titlesChanged();
+    }
+
+    // Each touched bitmap is copied once per chunk and the chunk's ids are subtracted from or OR-ed into it,
+    // rather than one copy per row; the title ranks are dropped once
+    @Override
+    public void update(List<MovieEntity> removed, List<MovieEntity> added) {
+        Batch<String> genres = new Batch<>();
+        Batch<String> languages = new Batch<>();
+        Batch<String> statuses = new Batch<>();
+        Batch<Integer> years = new Batch<>();
+        Batch<Long> runtimes = new Batch<>();
+        Batch<Long> budgets = new Batch<>();
+        Batch<Boolean> ids = new Batch<>();
+        for (boolean add : new boolean[] { false, true }) {
+            for (MovieEntity movie : add ? added : removed) {
+                int id = movie.getMovieId();
+                for (String genre : MovieAttributes.genres(movie)) {
+                    genres.record(genre, id, add);
+                }
+                languages.record(MovieAttributes.language(movie), id, add);
+                statuses.record(status(movie), id, add);
+                years.record(MovieAttributes.year(movie), id, add);
+                runtimes.record(bucket(movie.getRuntime()), id, add);
+                budgets.record(bucket(movie.getBudget()), id, add);
+                ids.record(Boolean.TRUE, id, add);
+            }
+        }
+        genres.applyTo(byGenre);
+        languages.applyTo(byLanguage);
+        statuses.applyTo(byStatus);
+        years.applyTo(byYear);
+        byRuntime.update(runtimes, removed, added, MovieEntity::getRuntime);
+        byBudget.update(budgets, removed, added, MovieEntity::getBudget);
+        all = ids.apply(Boolean.TRUE, all);
+        for (MovieEntity movie : removed) {
+            titles.remove(movie.getMovieId());
+        }
+        for (MovieEntity movie : added) {
+            titles.put(movie.getMovieId(), movie.getTitle() != null ? movie.getTitle() : "");
+        }
+        titlesChanged();
+    }
+
+    @Override
+    public void seal() {
+        ranks();
+        sealed = true;
+    }
+
+    public RoaringBitmap evaluate(MovieFilter filter) {
+        return evaluate(filter, 1);
+    }
+
+    private RoaringBitmap evaluate(MovieFilter filter, int depth) {
+        if (depth > MAX_FILTER_DEPTH) {
+            throw new IllegalArgumentException("Filters can be nested at most " + MAX_FILTER_DEPTH + " levels deep");
+        }
+        List<RoaringBitmap> terms = new ArrayList<>();
+        if (filter.getGenre() != null) {
+            terms.add(byGenre.getOrDefault(filter.getGenre(), EMPTY));
+        }
+        if (filter.getLanguage() != null) {
+            terms.add(byLanguage.getOrDefault(filter.getLanguage(), EMPTY));
+        }
+        if (filter.getStatus() != null) {
+            terms.add(byStatus.getOrDefault(filter.getStatus(), EMPTY));
+        }
+        if (filter.getYearFrom() != null || filter.getYearTo() != null) {
+            terms.add(range(byYear, filter.getYearFrom(), filter.getYearTo()));
+        }
+        if (filter.getRuntimeMin() != null || filter.getRuntimeMax() != null) {
+            terms.add(byRuntime.range(filter.getRuntimeMin(), filter.getRuntimeMax()));
+        }
+        if (filter.getBudgetMin() != null || filter.getBudgetMax() != null) {
+            terms.add(byBudget.range(filter.getBudgetMin() != null ? filter.getBudgetMin().doubleValue() : null,
+                    filter.getBudgetMax() != null ? filter.getBudgetMax().doubleValue() : null));
+        }
+        if (filter.getAnd() != null) {
+            for (MovieFilter child : filter.getAnd()) {
+                terms.add(evaluate(child, depth + 1));
+            }
+        }
+        if (filter.getOr() != null) {
+            RoaringBitmap[] alternatives = filter.getOr().stream()
+                    .map(child -> evaluate(child, depth + 1))
+                    .toArray(RoaringBitmap[]::new);
+            terms.add(alternatives.length == 0 ? EMPTY : FastAggregation.or(alternatives));
+        }
+        if (terms.isEmpty()) {
+            return all;
+        }
+        if (terms.size() == 1) {
+            return terms.get(0);
+        }
+        return FastAggregation.and(terms.toArray(new RoaringBitmap[0]));
+    }
+
+    // One page of the matching movieIds in title order. Walking the title order and stopping once the page
+    // is full visits about (from + size) * catalog / matches ids, so it wins unless the matches are few;
+    // then it is cheaper to rank and sort just those.
+    public int[] page(RoaringBitmap matches, int page, int size) {
+        long from = (long) page * size;
+        int cardinality = matches.getCardinality();
+        if (from >= cardinality) {
+            return new int[0];
+        }
+        TitleRanks ranks = ranks();
+        int count = (int) Math.min(size, cardinality - from);
+        long walk = (from + count) * ranks.size() / cardinality;
+        return walk <= cardinality
+                ? ranks.walk(matches, from, count)
+                : ranks.sort(matches, (int) from, count);
+    }
+
+    private TitleRanks ranks() {
+        TitleRanks ranks = titleRanks;
+        if (ranks != null) {
+            return ranks;
+        }
+        long version;
+        synchronized (this) {
+            if (titleRanks != null) {
+                return titleRanks;
+            }
+            version = modifications;
+        }
+        // Sorted outside the monitor so writers are not held up; a write meanwhile leaves these unpublished
+        ranks = new TitleRanks(titles);
+        synchronized (this) {
+            if (modifications == version) {
+                titleRanks = ranks;
+            }
+        }
+        return ranks;
+    }
+
+    private synchronized void titlesChanged() {
+        modifications++;
+        titleRanks = null;
+    }
+
+    private static <K extends Comparable<K>> RoaringBitmap range(NavigableMap<K, RoaringBitmap> index, K from, K to) {
+        NavigableMap<K, RoaringBitmap> slice;
+        if (from != null && to != null) {
+            if (from.compareTo(to) > 0) {
+                return EMPTY;
+            }
+            slice = index.subMap(from, true, to, true);
+        } else if (from != null) {
+            slice = index.tailMap(from, true);
+        } else {
+            slice = index.headMap(to, true);
+        }
+        RoaringBitmap[] bitmaps = slice.values().toArray(new RoaringBitmap[0]);
+        return bitmaps.length == 0 ? EMPTY : FastAggregation.or(bitmaps);
+    }
+
+    // Monotonic, so every value in [from, to] lands in a bucket between bucket(from) and bucket(to)
+    private static long bucket(double value) {
+        long whole = (long) Math.floor(value);
+        if (whole < (1L << (BUCKETS_PER_DOUBLING_BITS + 1))) {
+            return whole;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(whole) - BUCKETS_PER_DOUBLING_BITS;
+        return (whole >>> shift) << shift;
+    }
+
+    private <K> void update(Map<K, RoaringBitmap> index, K key, int id, boolean add) {
+        index.compute(key, (k, bitmap) -> {
+            RoaringBitmap updated = modify(bitmap != null ? bitmap : new RoaringBitmap(), id, add);
+            return updated.isEmpty() ? null : updated;
+        });
+    }
+
+    private RoaringBitmap modify(RoaringBitmap bitmap, int id, boolean add) {
+        RoaringBitmap target = sealed ? bitmap.clone() : bitmap;
+        if (add) {
+            target.add(id);
+        } else {
+            target.remove(id);
+        }
+        return target;
+    }
+
+    private static String status(MovieEntity movie) {
+        return movie.getStatus() != null ? movie.getStatus() : "";
+    }
+
+    // Bitmaps per value bucket, eight buckets per power of two, so a range ORs at most a few hundred
+    // bitmaps however many distinct values there are. Only ids in the two edge buckets are checked
+    // against their exact value.
+    private final class RangeIndex {
+        private final NavigableMap<Long, RoaringBitmap> buckets = new ConcurrentSkipListMap<>();
+        private final Map<Integer, Double> values = new ConcurrentHashMap<>();
+
+        private void update(double value, int id, boolean add) {
+            CatalogBitmapIndex.this.update(buckets, bucket(value), id, add);
+            if (add) {
+                values.put(id, value);
+            } else {
+                values.remove(id);
+            }
+        }
+
+        private void update(Batch<Long> changes, List<MovieEntity> removed, List<MovieEntity> added,
+                            ToDoubleFunction<MovieEntity> value) {
+            changes.applyTo(buckets);
+            for (MovieEntity movie : removed) {
+                values.remove(movie.getMovieId());
+            }
+            for (MovieEntity movie : added) {
+                values.put(movie.getMovieId(), value.applyAsDouble(movie));
+            }
+        }
+
+        private RoaringBitmap range(Double from, Double to) {
+            if (from != null && to != null && from > to) {
+                return EMPTY;
+            }
+            Long fromBucket = from != null ? bucket(from) : null;
+            Long toBucket = to != null ? bucket(to) : null;
+            RoaringBitmap matches = CatalogBitmapIndex.range(buckets, fromBucket, toBucket);
+            if (matches.isEmpty()) {
+                return matches;
+            }
+            matches = matches.clone();
+            trim(matches, fromBucket, from, to);
+            if (toBucket != null && !toBucket.equals(fromBucket)) {
+                trim(matches, toBucket, from, to);
+            }
+            return matches;
+        }
+
+        private void trim(RoaringBitmap matches, Long bucket, Double from, Double to) {
+            RoaringBitmap edge = bucket != null ? buckets.get(bucket) : null;
+            if (edge == null) {
+                return;
+            }
+            for (int id : edge) {
+                Double value = values.get(id);
+                if (value == null || (from != null && value < from) || (to != null && value > to)) {
+                    matches.remove(id);
+                }
+            }
+        }
+    }
+
+    // The ids a chunk removes from and adds to each bitmap key; removals are applied first, so an id whose
+    // old and new versions share a key stays in it
+    private final class Batch<K> {
+        private final Map<K, RoaringBitmap> removals = new HashMap<>();
+        private final Map<K, RoaringBitmap> additions = new HashMap<>();
+
+        private void record(K key, int id, boolean add) {
+            (add ? additions : removals).computeIfAbsent(key, k -> new RoaringBitmap()).add(id);
+        }
+
+        private RoaringBitmap apply(K key, RoaringBitmap bitmap) {
+            RoaringBitmap target = bitmap == null ? new RoaringBitmap() : sealed ? bitmap.clone() : bitmap;
+            RoaringBitmap removed = removals.get(key);
+            if (removed != null) {
+                target.andNot(removed);
+            }
+            RoaringBitmap added = additions.get(key);
+            if (added != null) {
+                target.or(added);
+            }
+            return target;
+        }
+
+        private void applyTo(Map<K, RoaringBitmap> index) {
+            Set<K> keys = new HashSet<>(removals.keySet());
+            keys.addAll(additions.keySet());
+            for (K key : keys) {
+                index.compute(key, (k, bitmap) -> {
+                    RoaringBitmap updated = apply(k, bitmap);
+                    return updated.isEmpty() ? null : updated;
+                });
+            }
+        }
+    }
+
+    // movieIds in title order, and in ascending id order with the title rank of each for binary search
+    private static final class TitleRanks {
+        private final int[] byTitle;
+        private final int[] ids;
+        private final int[] ranks;
+
+        private TitleRanks(Map<Integer, String> titles) {
+            this.byTitle = titles.keySet().stream()
+                    .sorted(Comparator.comparing((Integer id) -> titles.getOrDefault(id, ""))
+                            .thenComparing(Comparator.naturalOrder()))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            long[] idAndRank = new long[byTitle.length];
+            for (int rank = 0; rank < byTitle.length; rank++) {
+                idAndRank[rank] = ((long) byTitle[rank] << 32) | rank;
+            }
+            Arrays.sort(idAndRank);
+            this.ids = new int[idAndRank.length];
+            this.ranks = new int[idAndRank.length];
+            for (int i = 0; i < idAndRank.length; i++) {
+                ids[i] = (int) (idAndRank[i] >>> 32);
+                ranks[i] = (int) idAndRank[i];
+            }
+        }
+
+        private int size() {
+            return byTitle.length;
+        }
+
+        // Matches added after these ranks were built are missing from the walk until they are rebuilt
+        private int[] walk(RoaringBitmap matches, long from, int count) {
+            int[] pageIds = new int[count];
+            int filled = 0;
+            long seen = 0;
+            for (int i = 0; i < byTitle.length && filled < count; i++) {
+                if (matches.contains(byTitle[i]) && seen++ >= from) {
+                    pageIds[filled++] = byTitle[i];
+                }
+            }
+            return filled == count ? pageIds : Arrays.copyOf(pageIds, filled);
+        }
+
+        private int[] sort(RoaringBitmap matches, int from, int count) {
+            int[] matchIds = matches.toArray();
+            long[] ranked = new long[matchIds.length];
+            for (int i = 0; i < matchIds.length; i++) {
+                ranked[i] = ((long) rank(matchIds[i]) << 32) | (matchIds[i] & 0xFFFFFFFFL);
+            }
+            Arrays.sort(ranked);
+            int[] pageIds = new int[Math.min(count, Math.max(0, ranked.length - from))];
+            for (int i = 0; i < pageIds.length; i++) {
+                pageIds[i] = (int) ranked[from + i];
+            }
+            return pageIds;
+        }
+
+        private int rank(int movieId) {
+            int index = Arrays.binarySearch(ids, movieId);
+            return index >= 0 ? ranks[index] : Integer.MAX_VALUE;
+        }
+    }
+}
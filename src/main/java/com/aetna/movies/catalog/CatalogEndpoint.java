@@ -0,0 +1,37 @@
+package com.aetna.movies.catalog;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+// GET /actuator/catalog describes the live snapshot, POST /actuator/catalog reloads it from the database file
+@Component
+@Endpoint(id = "catalog")
+public class CatalogEndpoint {
+
+    private final CatalogService catalogService;
+    private final CatalogReloader catalogReloader;
+
+    public CatalogEndpoint(CatalogService catalogService, CatalogReloader catalogReloader) {
+        this.catalogService = catalogService;
+        this.catalogReloader = catalogReloader;
+    }
+
+    @ReadOperation
+    public Map<String, Object> catalog() {
+        CatalogSnapshot snapshot = catalogService.current();
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("movies", snapshot.getMovies().size());
+        details.put("builtAt", snapshot.getBuiltAt());
+        return details;
+    }
+
+    @WriteOperation
+    public CatalogReloader.ReloadResult reload() {
+        return catalogReloader.reload();
+    }
+}
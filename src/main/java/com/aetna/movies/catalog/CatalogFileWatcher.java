@@ -0,0 +1,157 @@
+package com.aetna.movies.catalog;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// Reloads the catalog when the SQLite file is replaced. Only a new file (e.g. an atomic mv over
+// movies.db) counts: the file identity is compared, so the application's own writes are ignored.
+// The switch is read at runtime rather than with @ConditionalOnProperty, which AOT would fix at build time.
+@Component
+@Slf4j
+public class CatalogFileWatcher {
+
+    private static final String SQLITE_URL_PREFIX = "jdbc:sqlite:";
+
+    private final CatalogReloader catalogReloader;
+    private final DataSourceProperties dataSourceProperties;
+    private final boolean enabled;
+    private final long quietPeriodMillis;
+
+    private WatchService watchService;
+    private Object loadedFile;
+
+    public CatalogFileWatcher(CatalogReloader catalogReloader, DataSourceProperties dataSourceProperties,
+                              @Value("${movies.reload.watch.enabled:false}") boolean enabled,
+                              @Value("${movies.reload.watch.quiet-period-millis:2000}") long quietPeriodMillis,
+                              @Value("${movies.storage.shards:1}") int shards) {
+        if (enabled && shards > 1) {
+            throw new IllegalStateException("movies.reload.watch.enabled cannot be combined with "
+                    + "movies.storage.shards > 1, reloads replace the primary database only");
+        }
+        this.catalogReloader = catalogReloader;
+        this.dataSourceProperties = dataSourceProperties;
+        this.enabled = enabled;
+        this.quietPeriodMillis = quietPeriodMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Path database = databaseFile();
+        if (database == null) {
+            log.warn("Catalog file watch disabled, {} is not a SQLite file URL", dataSourceProperties.getUrl());
+            return;
+        }
+        try {
+            loadedFile = fileIdentity(database);
+            watchService = FileSystems.getDefault().newWatchService();
+            database.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            log.error("Failed to watch {}: {}", database, e.getMessage(), e);
+            return;
+        }
+        Thread watcher = new Thread(() -> watch(database), "catalog-file-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        log.info("Watching {} for catalog updates", database);
+    }
+
+    private void watch(Path database) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean touched = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    touched |= database.getFileName().equals(event.context());
+                }
+                key.reset();
+                // A reload already running (e.g. one triggered by hand) may have read the file before the swap
+                while (touched) {
+                    awaitQuietPeriod();
+                    touched = !reloadIfReplaced(database);
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            log.debug("Catalog file watcher stopped");
+        }
+    }
+
+    // Lets a copy that is still in progress settle before the file is opened
+    private void awaitQuietPeriod() throws InterruptedException {
+        WatchKey key;
+        while ((key = watchService.poll(quietPeriodMillis, TimeUnit.MILLISECONDS)) != null) {
+            key.pollEvents();
+            key.reset();
+        }
+    }
+
+    // False when the reload has to be retried; a file the reload rejected is retried on its next change
+    private boolean reloadIfReplaced(Path database) {
+        try {
+            Object current = fileIdentity(database);
+            if (Objects.equals(current, loadedFile)) {
+                return true;
+            }
+            log.info("Detected a new {}, reloading the catalog", database.getFileName());
+            CatalogReloader.ReloadResult result = catalogReloader.reload();
+            if (!"reloaded".equals(result.status())) {
+                log.info("Catalog reload {}, retrying after the quiet period", result.status());
+                return false;
+            }
+            loadedFile = current;
+        } catch (Exception e) {
+            log.error("Catalog reload after file change failed: {}", e.getMessage(), e);
+        }
+        return true;
+    }
+
+    private Path databaseFile() {
+        String url = dataSourceProperties.getUrl();
+        if (url == null || !url.startsWith(SQLITE_URL_PREFIX)) {
+            return null;
+        }
+        String file = url.substring(SQLITE_URL_PREFIX.length());
+        int options = file.indexOf('?');
+        if (options >= 0) {
+            file = file.substring(0, options);
+        }
+        if (file.isBlank() || file.startsWith(":memory:")) {
+            return null;
+        }
+        return Path.of(file).toAbsolutePath();
+    }
+
+    private static Object fileIdentity(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return attributes.fileKey() != null ? attributes.fileKey() : attributes.lastModifiedTime();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.aetna.movies.catalog;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.aetna.movies.entity.MovieEntity;
+
+// Bloom filter over every movieId, so a lookup for an id that was never written is answered without SQLite.
+// It never reports a written id as absent: ids are added on load and by every import, and removals leave
+// their bits set, so a deleted id only costs a database lookup. Sized at seal() for twice the loaded catalog,
+// which keeps false positives near 1% while imports grow it; until then every id may be present.
+public class CatalogIdFilter implements CatalogIndex {
+
+    private static final int BITS_PER_ID = 10;
+    private static final int HASHES = 7;
+    private static final int MIN_CAPACITY = 1024;
+
+    private int[] pending = new int[MIN_CAPACITY];
+    private int pendingCount;
+    private volatile AtomicLongArray bits;
+    private long bitCount;
+
+    @Override
+    public void add(MovieEntity movie) {
+        add(movie.getMovieId());
+    }
+
+    public void add(int movieId) {
+        AtomicLongArray sealed = bits;
+        if (sealed == null) {
+            synchronized (this) {
+                sealed = bits;
+                if (sealed == null) {
+                    if (pendingCount == pending.length) {
+                        pending = Arrays.copyOf(pending, pendingCount * 2);
+                    }
+                    pending[pendingCount++] = movieId;
+                    return;
+                }
+            }
+        }
+        long hash = mix(movieId);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = bit(hash, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = sealed.get(word);
+            while ((current & mask) == 0 && !sealed.compareAndSet(word, current, current | mask)) {
+                current = sealed.get(word);
+            }
+        }
+    }
+
+    // Bits cannot be cleared without forgetting other ids that share them
+    @Override
+    public void remove(MovieEntity movie) {
+    }
+
+    @Override
+    public synchronized void seal() {
+        if (bits != null) {
+            return;
+        }
+        long capacity = Math.max(2L * pendingCount, MIN_CAPACITY);
+        bitCount = (capacity * BITS_PER_ID + 63) & ~63L;
+        bits = new AtomicLongArray((int) (bitCount >>> 6));
+        for (int i = 0; i < pendingCount; i++) {
+            add(pending[i]);
+        }
+        pending = null;
+    }
+
+    public boolean isSealed() {
+        return bits != null;
+    }
+
+    // False means the id was never added; true means it probably was, or the filter is not built yet
+    public boolean mightContain(int movieId) {
+        AtomicLongArray sealed = bits;
+        if (sealed == null) {
+            return true;
+        }
+        long hash = mix(movieId);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = bit(hash, i);
+            if ((sealed.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Double hashing: the i-th probe is h1 + i * h2 over the two halves of one 64-bit hash
+    private long bit(long hash, int i) {
+        long h1 = hash >>> 32;
+        long h2 = (hash & 0xFFFFFFFFL) | 1;
+        return Math.floorMod(h1 + i * h2, bitCount);
+    }
+
+    // SplitMix64 finalizer; consecutive ids would otherwise land in neighbouring bits
+    private static long mix(int movieId) {
+        long z = movieId + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
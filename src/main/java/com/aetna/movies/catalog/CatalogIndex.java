@@ -0,0 +1,25 @@
+package com.aetna.movies.catalog;
+
+import java.util.List;
+
+import com.aetna.movies.entity.MovieEntity;
+
+// In-memory structure derived from the catalog. Built with one add() per movie at load time, then
+// seal(), and kept current with remove()/add() pairs when a movie changes.
+public interface CatalogIndex {
+
+    void add(MovieEntity movie);
+
+    void remove(MovieEntity movie);
+
+    // A committed chunk of writes: the versions being replaced, then their replacements. Indexes whose
+    // per-row writes copy large structures override this to copy them once per chunk
+    default void update(List<MovieEntity> removed, List<MovieEntity> added) {
+        removed.forEach(this::remove);
+        added.forEach(this::add);
+    }
+
+    // Precomputes whatever is derived lazily after the initial load
+    default void seal() {
+    }
+}
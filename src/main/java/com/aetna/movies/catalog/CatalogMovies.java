@@ -0,0 +1,34 @@
+package com.aetna.movies.catalog;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.aetna.movies.entity.MovieEntity;
+
+// The rows themselves, so snapshot-backed endpoints never have to go back to SQLite
+public class CatalogMovies implements CatalogIndex {
+
+    private final Map<Integer, MovieEntity> moviesById = new ConcurrentHashMap<>();
+
+    @Override
+    public void add(MovieEntity movie) {
+        moviesById.put(movie.getMovieId(), movie);
+    }
+
+    @Override
+    public void remove(MovieEntity movie) {
+        moviesById.remove(movie.getMovieId());
+    }
+
+    public MovieEntity get(int movieId) {
+        return moviesById.get(movieId);
+    }
+
+    public int[] ids() {
+        return moviesById.keySet().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public int size() {
+        return moviesById.size();
+    }
+}
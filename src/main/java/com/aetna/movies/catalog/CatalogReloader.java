@@ -0,0 +1,175 @@
+package com.aetna.movies.catalog;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.aetna.movies.config.DataSourceConfig;
+import com.aetna.movies.config.SwappableDataSource;
+import com.aetna.movies.entity.MovieEntity;
+import com.aetna.movies.exception.MoviesServiceException;
+import com.aetna.movies.repository.ChangeVersionGenerator;
+import com.aetna.movies.repository.MovieRowMapper;
+import com.aetna.movies.repository.MovieSchema;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// Rebuilds the read side from the database file as it is now: a fresh connection pool and a new
+// catalog snapshot are prepared off the request path, then both are swapped in. The old pool is
+// closed only after a drain period so requests that still hold its connections can finish. A file
+// written by the offline scripts is migrated to the current schema first, and rejected if it cannot be.
+// Rows that changed against the live catalog are stamped with new change versions before the swap.
+@Component
+@Slf4j
+public class CatalogReloader {
+
+    public record ReloadResult(String status, int movies, long durationMillis) {
+    }
+
+    private final CatalogService catalogService;
+    private final SwappableDataSource dataSource;
+    private final ChangeVersionGenerator changeVersionGenerator;
+    private final DataSourceProperties dataSourceProperties;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final long drainSeconds;
+    private final int shards;
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private final ScheduledExecutorService retirements;
+
+    public CatalogReloader(CatalogService catalogService, DataSource dataSource,
+                           ChangeVersionGenerator changeVersionGenerator, DataSourceProperties dataSourceProperties,
+                           Environment environment, MeterRegistry meterRegistry,
+                           @Value("${movies.reload.drain-seconds:30}") long drainSeconds,
+                           @Value("${movies.storage.shards:1}") int shards) throws SQLException {
+        this.catalogService = catalogService;
+        this.dataSource = dataSource.unwrap(SwappableDataSource.class);
+        this.changeVersionGenerator = changeVersionGenerator;
+        this.dataSourceProperties = dataSourceProperties;
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.drainSeconds = drainSeconds;
+        this.shards = shards;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("catalog-retire-");
+        threadFactory.setDaemon(true);
+        this.retirements = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    // Reloads swap the primary database only, which a sharded catalog does not serve reads from
+    public ReloadResult reload() {
+        if (shards > 1) {
+            throw new MoviesServiceException("Catalog reload replaces the primary database and is not available "
+                    + "with movies.storage.shards > 1");
+        }
+        if (!reloadLock.tryLock()) {
+            log.info("Catalog reload already in progress");
+            return new ReloadResult("in_progress", 0, 0);
+        }
+        long start = System.nanoTime();
+        String outcome = "failure";
+        // Waits for a running import, whose rows the new snapshot would otherwise miss
+        Lock catalogWrites = catalogService.writeLock();
+        catalogWrites.lock();
+        HikariDataSource pool = DataSourceConfig.createPool(dataSourceProperties, environment);
+        try {
+            MovieSchema.migrate(pool);
+            List<MovieEntity> movies = new JdbcTemplate(pool).query(MovieRowMapper.SELECT_ALL, MovieRowMapper.INSTANCE);
+            changeVersionGenerator.advanceTo(movies.stream().mapToLong(MovieEntity::getChangeVersion).max().orElse(0));
+            int stamped = stampChanges(pool, movies);
+            CatalogSnapshot snapshot = CatalogSnapshot.build(movies);
+
+            DataSource previous = dataSource.swap(pool);
+            catalogService.replace(snapshot);
+            retire(previous);
+            outcome = "success";
+
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.info("Catalog reloaded with {} movies ({} changed) in {} ms", movies.size(), stamped, durationMillis);
+            return new ReloadResult("reloaded", movies.size(), durationMillis);
+        } catch (Exception e) {
+            pool.close();
+            throw new MoviesServiceException("Exception occurred while reloading the catalog", e);
+        } finally {
+            catalogWrites.unlock();
+            reloadLock.unlock();
+            Timer.builder("movies.catalog.reload")
+                    .description("Time to rebuild and swap in the catalog from the database file")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Rows in the new file that are new or differ from the live catalog get fresh change versions, so
+    // mirrors following the change feed pick them up. Rows the new file drops are not in the feed.
+    private int stampChanges(DataSource pool, List<MovieEntity> movies) {
+        CatalogMovies live = catalogService.current().getMovies();
+        List<MovieEntity> changed = movies.stream()
+                .filter(movie -> !sameContent(movie, live.get(movie.getMovieId())))
+                .toList();
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        long version = changeVersionGenerator.reserve(changed.size());
+        for (MovieEntity movie : changed) {
+            movie.setChangeVersion(version++);
+        }
+        new JdbcTemplate(pool).batchUpdate("UPDATE movies SET changeVersion = ? WHERE movieId = ?", changed,
+                changed.size(), (ps, movie) -> {
+                    ps.setLong(1, movie.getChangeVersion());
+                    ps.setInt(2, movie.getMovieId());
+                });
+        return changed.size();
+    }
+
+    private static boolean sameContent(MovieEntity a, MovieEntity b) {
+        return b != null
+                && a.getMovieId() == b.getMovieId()
+                && Objects.equals(a.getImdbId(), b.getImdbId())
+                && Objects.equals(a.getTitle(), b.getTitle())
+                && Objects.equals(a.getOverview(), b.getOverview())
+                && Objects.equals(a.getProductionCompanies(), b.getProductionCompanies())
+                && Objects.equals(a.getReleaseDate(), b.getReleaseDate())
+                && a.getBudget() == b.getBudget()
+                && Double.compare(a.getRevenue(), b.getRevenue()) == 0
+                && Double.compare(a.getRuntime(), b.getRuntime()) == 0
+                && Objects.equals(a.getLanguage(), b.getLanguage())
+                && Objects.equals(a.getGenres(), b.getGenres())
+                && Objects.equals(a.getStatus(), b.getStatus());
+    }
+
+    private void retire(DataSource previous) {
+        if (previous instanceof AutoCloseable closeable) {
+            retirements.schedule(() -> {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close retired connection pool: {}", e.getMessage());
+                }
+            }, drainSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retirements.shutdownNow();
+    }
+}
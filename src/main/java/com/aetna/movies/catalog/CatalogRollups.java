@@ -0,0 +1,209 @@
+package com.aetna.movies.catalog;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import com.aetna.movies.dto.MovieStats;
+import com.aetna.movies.entity.MovieEntity;
+
+// Count/sum aggregates for every combination of year, genre and language, so any group-by
+// is a read of one pre-aggregated map. For a group-by with filters, the matching groups are also
+// kept as a sorted view per filter value, so a query reads exactly the groups it returns.
+// Counts and budgets are exact under remove(); the double sums are compensated so add/remove
+// cycles do not drift, and a group is dropped, residue and all, when its count reaches zero.
+public class CatalogRollups implements CatalogIndex {
+
+    public enum Dimension {
+        YEAR, GENRE, LANGUAGE;
+
+        private int bit() {
+            return 1 << ordinal();
+        }
+    }
+
+    private static final int ALL_DIMENSIONS = (1 << Dimension.values().length) - 1;
+
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator
+            .comparing(RollupKey::year, Comparator.nullsFirst(Comparator.<Integer>naturalOrder()))
+            .thenComparing(RollupKey::genre, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(RollupKey::language, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+
+    private final List<Map<RollupKey, Accumulator>> rollups = new ArrayList<>();
+    // Sorted group keys of a grouping mask that match the values of a subset of its dimensions
+    private final Map<ViewKey, NavigableSet<RollupKey>> views = new ConcurrentHashMap<>();
+
+    public CatalogRollups() {
+        for (int mask = 0; mask <= ALL_DIMENSIONS; mask++) {
+            rollups.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    @Override
+    public void add(MovieEntity movie) {
+        apply(movie, 1);
+    }
+
+    @Override
+    public void remove(MovieEntity movie) {
+        apply(movie, -1);
+    }
+
+    public List<MovieStats> query(Set<Dimension> groupBy, Integer year, String genre, String language) {
+        int fixed = (year != null ? Dimension.YEAR.bit() : 0)
+                | (genre != null ? Dimension.GENRE.bit() : 0)
+                | (language != null ? Dimension.LANGUAGE.bit() : 0);
+        int mask = fixed;
+        for (Dimension dimension : groupBy) {
+            mask |= dimension.bit();
+        }
+        Map<RollupKey, Accumulator> groups = rollups.get(mask);
+
+        if (mask == fixed) {
+            RollupKey key = new RollupKey(year, genre, language);
+            Accumulator accumulator = groups.get(key);
+            return accumulator == null ? List.of() : List.of(accumulator.toStats(key));
+        }
+        NavigableSet<RollupKey> keys = views.get(new ViewKey(mask, fixed, new RollupKey(year, genre, language)));
+        if (keys == null) {
+            return List.of();
+        }
+        List<MovieStats> stats = new ArrayList<>(keys.size());
+        for (RollupKey key : keys) {
+            Accumulator accumulator = groups.get(key);
+            if (accumulator != null) {
+                stats.add(accumulator.toStats(key));
+            }
+        }
+        return stats;
+    }
+
+    private void apply(MovieEntity movie, int sign) {
+        int year = MovieAttributes.year(movie);
+        String language = MovieAttributes.language(movie);
+        List<String> genres = MovieAttributes.genres(movie);
+
+        for (int mask = 0; mask <= ALL_DIMENSIONS; mask++) {
+            Integer yearKey = has(mask, Dimension.YEAR) ? year : null;
+            String languageKey = has(mask, Dimension.LANGUAGE) ? language : null;
+            if (has(mask, Dimension.GENRE)) {
+                for (String genre : genres) {
+                    accumulate(mask, new RollupKey(yearKey, genre, languageKey), movie, sign);
+                }
+            } else {
+                accumulate(mask, new RollupKey(yearKey, null, languageKey), movie, sign);
+            }
+        }
+    }
+
+    // Writers are serialized by CatalogService, readers only ever see whole accumulators
+    private void accumulate(int mask, RollupKey key, MovieEntity movie, int sign) {
+        Map<RollupKey, Accumulator> groups = rollups.get(mask);
+        Accumulator accumulator = groups.get(key);
+        if (accumulator == null) {
+            accumulator = new Accumulator();
+            groups.put(key, accumulator);
+            updateViews(mask, key, true);
+        }
+        synchronized (accumulator) {
+            accumulator.apply(movie, sign);
+            if (accumulator.count <= 0) {
+                groups.remove(key, accumulator);
+                updateViews(mask, key, false);
+            }
+        }
+    }
+
+    // A group is listed in one view per proper subset of its mask, under its values for that subset
+    private void updateViews(int mask, RollupKey key, boolean add) {
+        int fixed = mask;
+        while (fixed != 0) {
+            fixed = (fixed - 1) & mask;
+            ViewKey view = new ViewKey(mask, fixed, new RollupKey(
+                    has(fixed, Dimension.YEAR) ? key.year() : null,
+                    has(fixed, Dimension.GENRE) ? key.genre() : null,
+                    has(fixed, Dimension.LANGUAGE) ? key.language() : null));
+            if (add) {
+                views.computeIfAbsent(view, v -> new ConcurrentSkipListSet<>(KEY_ORDER)).add(key);
+            } else {
+                NavigableSet<RollupKey> keys = views.get(view);
+                if (keys != null) {
+                    keys.remove(key);
+                    if (keys.isEmpty()) {
+                        views.remove(view, keys);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean has(int mask, Dimension dimension) {
+        return (mask & dimension.bit()) != 0;
+    }
+
+    private record RollupKey(Integer year, String genre, String language) {
+    }
+
+    private record ViewKey(int mask, int fixed, RollupKey values) {
+    }
+
+    private static final class Accumulator {
+        private long count;
+        private long budgetSum;
+        private final CompensatedSum revenueSum = new CompensatedSum();
+        private final CompensatedSum runtimeSum = new CompensatedSum();
+        private final CompensatedSum runtimeSquareSum = new CompensatedSum();
+
+        private void apply(MovieEntity movie, int sign) {
+            count += sign;
+            budgetSum += sign * movie.getBudget();
+            revenueSum.add(sign * movie.getRevenue());
+            runtimeSum.add(sign * movie.getRuntime());
+            runtimeSquareSum.add(sign * movie.getRuntime() * movie.getRuntime());
+        }
+
+        private synchronized MovieStats toStats(RollupKey key) {
+            double revenueTotal = revenueSum.value();
+            double averageRuntime = count == 0 ? 0 : runtimeSum.value() / count;
+            double runtimeVariance = count == 0 ? 0 : runtimeSquareSum.value() / count - averageRuntime * averageRuntime;
+            return MovieStats.builder()
+                    .year(key.year())
+                    .genre(key.genre())
+                    .language(key.language())
+                    .count(count)
+                    .totalBudget(budgetSum)
+                    .averageBudget(count == 0 ? 0 : (double) budgetSum / count)
+                    .totalRevenue(revenueTotal)
+                    .averageRevenue(count == 0 ? 0 : revenueTotal / count)
+                    .averageRuntime(averageRuntime)
+                    .runtimeStdDev(Math.sqrt(Math.max(0, runtimeVariance)))
+                    .build();
+        }
+    }
+
+    // Neumaier summation: the low-order bits each addition loses are carried separately, so the
+    // error of many add/remove cycles stays near one rounding instead of growing with the sum
+    private static final class CompensatedSum {
+        private double sum;
+        private double compensation;
+
+        private void add(double value) {
+            double total = sum + value;
+            if (Math.abs(sum) >= Math.abs(value)) {
+                compensation += (sum - total) + value;
+            } else {
+                compensation += (value - total) + sum;
+            }
+            sum = total;
+        }
+
+        private double value() {
+            return sum + compensation;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.aetna.movies.catalog;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.aetna.movies.entity.MovieEntity;
+import com.aetna.movies.repository.MovieStore;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+public class CatalogService {
+
+    private final MovieStore movieStore;
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>(CatalogSnapshot.empty());
+    private final boolean idFilterEnabled;
+    private final Counter absentCounter;
+    private final Counter passedCounter;
+    private final Counter falsePositiveCounter;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public CatalogService(MovieStore movieStore, MeterRegistry meterRegistry,
+                          @Value("${movies.id-filter.enabled:true}") boolean idFilterEnabled) {
+        this.movieStore = movieStore;
+        this.idFilterEnabled = idFilterEnabled;
+        this.absentCounter = Counter.builder("movies.catalog.id.lookups")
+                .description("Movie id lookups checked against the id filter")
+                .tag("result", "absent")
+                .register(meterRegistry);
+        this.passedCounter = Counter.builder("movies.catalog.id.lookups")
+                .description("Movie id lookups checked against the id filter")
+                .tag("result", "passed")
+                .register(meterRegistry);
+        this.falsePositiveCounter = Counter.builder("movies.catalog.id.false.positives")
+                .description("Ids the id filter passed to the database that did not exist")
+                .register(meterRegistry);
+    }
+
+    @EventListener(value = ApplicationReadyEvent.class,
+            condition = "@environment.getProperty('movies.catalog.load-on-startup', 'true') == 'true'")
+    public void load() {
+        try {
+            long start = System.nanoTime();
+            List<MovieEntity> movies = movieStore.findAll();
+            snapshot.set(CatalogSnapshot.build(movies));
+            log.info("Catalog snapshot of {} movies built in {} ms", movies.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            log.error("Failed to build catalog snapshot: {}", e.getMessage(), e);
+        }
+    }
+
+    public CatalogSnapshot current() {
+        return snapshot.get();
+    }
+
+    // Held by an import for its whole run and by a reload from its database read until the new snapshot is live,
+    // so a reload never publishes a snapshot read before an import committed, without that import's ids and rows
+    public Lock writeLock() {
+        return writeLock;
+    }
+
+    // Swaps in a fully built snapshot; requests that already read the previous one finish on it
+    public synchronized void replace(CatalogSnapshot next) {
+        snapshot.set(next);
+    }
+
+    // True only when the id was never loaded or written, so the database lookup can be skipped
+    public boolean isKnownAbsent(int movieId) {
+        CatalogIdFilter idFilter = snapshot.get().getIdFilter();
+        if (!idFilterEnabled || !idFilter.isSealed()) {
+            return false;
+        }
+        if (idFilter.mightContain(movieId)) {
+            passedCounter.increment();
+            return false;
+        }
+        absentCounter.increment();
+        return true;
+    }
+
+    // A lookup the filter let through found nothing; with the absent count this gives the filter's hit rate
+    public void movieNotFound(int movieId) {
+        if (idFilterEnabled && snapshot.get().getIdFilter().isSealed()) {
+            falsePositiveCounter.increment();
+        }
+    }
+
+    // Called by writes that bypass the snapshot, before they commit, so a new id is never reported absent
+    public void moviesWritten(int[] movieIds) {
+        CatalogIdFilter idFilter = snapshot.get().getIdFilter();
+        for (int movieId : movieIds) {
+            idFilter.add(movieId);
+        }
+    }
+
+    // Applies committed upserts to the live snapshot as one batch; the version of each row it holds is the
+    // one replaced, and the last of several rows with the same id wins as it did in the database
+    public synchronized void moviesUpserted(List<MovieEntity> movies) {
+        CatalogSnapshot catalog = snapshot.get();
+        Map<Integer, MovieEntity> added = new LinkedHashMap<>();
+        for (MovieEntity movie : movies) {
+            added.put(movie.getMovieId(), movie);
+        }
+        List<MovieEntity> removed = new ArrayList<>();
+        for (int movieId : added.keySet()) {
+            MovieEntity previous = catalog.getMovies().get(movieId);
+            if (previous != null) {
+                removed.add(previous);
+            }
+        }
+        catalog.update(removed, new ArrayList<>(added.values()));
+    }
+}
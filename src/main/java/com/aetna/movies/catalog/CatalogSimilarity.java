@@ -0,0 +1,352 @@
+package com.aetna.movies.catalog;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+import com.aetna.movies.entity.MovieEntity;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Precomputed nearest neighbors per movie, scored on genre overlap (Jaccard), release-year proximity
+// and original language. Candidates are bounded: movies sharing a genre, nearest release years first,
+// then movies from the same year, up to MAX_CANDIDATES, so a list costs the same at any catalog size.
+// seal() hands the lists to a dedicated pool instead of building them on the caller's thread; until a
+// movie's list is built it is computed on first lookup. Writes patch the lists of the affected candidates.
+@Slf4j
+public class CatalogSimilarity implements CatalogIndex {
+
+    public static final int MAX_NEIGHBORS = 20;
+    static final int MAX_CANDIDATES = 500;
+
+    private static final double GENRE_WEIGHT = 0.6;
+    private static final double YEAR_WEIGHT = 0.25;
+    private static final double LANGUAGE_WEIGHT = 0.15;
+    private static final int YEAR_WINDOW = 20;
+    private static final int NO_LANGUAGE = -1;
+    private static final int MOVIES_PER_TASK = 64;
+
+    // Shared by all snapshots and kept off the common pool, which request code also uses
+    private static final ForkJoinPool BUILDER = new ForkJoinPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+            pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("catalog-similarity-" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                return thread;
+            },
+            null, false);
+
+    private final Map<Integer, Features> features = new ConcurrentHashMap<>();
+    private final Map<Integer, Neighbors> neighbors = new ConcurrentHashMap<>();
+    private final Map<String, Integer> genreBits = new ConcurrentHashMap<>();
+    private final Map<String, Integer> languageIds = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Integer>> byGenreYear = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Integer>> byYear = new ConcurrentHashMap<>();
+
+    private volatile boolean sealed;
+    private volatile int minYear = Integer.MAX_VALUE;
+    private volatile int maxYear = Integer.MIN_VALUE;
+    // Bumped by every write after seal(); a list computed across a write is not stored
+    private long writes;
+
+    @Override
+    public void add(MovieEntity movie) {
+        Features added = features(movie);
+        features.put(added.movieId(), added);
+        post(added, true);
+        if (!sealed) {
+            return;
+        }
+        Features[] candidates = candidates(added);
+        synchronized (this) {
+            writes++;
+            neighbors.put(added.movieId(), nearest(added, candidates));
+            // The new movie can only displace the tail of its candidates' lists
+            for (Features other : candidates) {
+                neighbors.computeIfPresent(other.movieId(),
+                        (id, list) -> list.offer(added.movieId(), (float) score(other, added)));
+            }
+        }
+    }
+
+    // Lists outside the removed movie's candidates that still name it are filtered when read
+    @Override
+    public void remove(MovieEntity movie) {
+        int movieId = movie.getMovieId();
+        Features removed = features.remove(movieId);
+        neighbors.remove(movieId);
+        if (removed == null) {
+            return;
+        }
+        Features[] candidates = candidates(removed);
+        post(removed, false);
+        if (!sealed) {
+            return;
+        }
+        synchronized (this) {
+            writes++;
+            for (Features owner : candidates) {
+                Neighbors list = neighbors.get(owner.movieId());
+                if (list != null && list.contains(movieId)) {
+                    neighbors.put(owner.movieId(), nearest(owner, candidates(owner)));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void seal() {
+        sealed = true;
+        Features[] all = features.values().toArray(new Features[0]);
+        long start = System.nanoTime();
+        BUILDER.execute(() -> {
+            new NeighborsTask(all, 0, all.length).invoke();
+            log.info("Similar movie lists for {} movies built in {} ms", all.length,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        });
+    }
+
+    // Up to n movieIds most similar to movieId, best first; empty when the movie is unknown
+    public int[] similar(int movieId, int n) {
+        Neighbors list = neighbors.get(movieId);
+        if (list == null) {
+            Features target = features.get(movieId);
+            if (target == null) {
+                return new int[0];
+            }
+            list = compute(target);
+        }
+        int[] ids = new int[Math.min(n, list.ids().length)];
+        int count = 0;
+        for (int i = 0; i < list.ids().length && count < ids.length; i++) {
+            if (features.containsKey(list.ids()[i])) {
+                ids[count++] = list.ids()[i];
+            }
+        }
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    private Neighbors compute(Features target) {
+        long version;
+        synchronized (this) {
+            version = writes;
+        }
+        Neighbors list = nearest(target, candidates(target));
+        synchronized (this) {
+            if (writes == version) {
+                neighbors.putIfAbsent(target.movieId(), list);
+            }
+        }
+        return list;
+    }
+
+    private Features[] candidates(Features target) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        long genres = target.genres();
+        int low = minYear;
+        int high = maxYear;
+        if (genres != 0 && low <= high) {
+            int center = target.year() != MovieAttributes.UNKNOWN_YEAR ? target.year() : high;
+            int maxDistance = Math.max(Math.abs(center - low), Math.abs(high - center));
+            for (int distance = 0; distance <= maxDistance && ids.size() < MAX_CANDIDATES; distance++) {
+                for (long bits = genres; bits != 0; bits &= bits - 1) {
+                    int bit = Long.numberOfTrailingZeros(bits);
+                    collect(byGenreYear.get(genreYear(bit, center - distance)), target.movieId(), ids);
+                    if (distance > 0) {
+                        collect(byGenreYear.get(genreYear(bit, center + distance)), target.movieId(), ids);
+                    }
+                }
+            }
+        }
+        for (long bits = genres; bits != 0; bits &= bits - 1) {
+            int bit = Long.numberOfTrailingZeros(bits);
+            collect(byGenreYear.get(genreYear(bit, MovieAttributes.UNKNOWN_YEAR)), target.movieId(), ids);
+        }
+        collect(byYear.get(target.year()), target.movieId(), ids);
+
+        Features[] candidates = new Features[ids.size()];
+        int count = 0;
+        for (int id : ids) {
+            Features candidate = features.get(id);
+            if (candidate != null) {
+                candidates[count++] = candidate;
+            }
+        }
+        return count == candidates.length ? candidates : Arrays.copyOf(candidates, count);
+    }
+
+    // The whole posting when it fits, otherwise its lowest ids, so the cut never depends on hash order
+    private static void collect(Set<Integer> posting, int targetId, Set<Integer> ids) {
+        int room = MAX_CANDIDATES - ids.size();
+        if (posting == null || room <= 0) {
+            return;
+        }
+        int[] members = posting.stream()
+                .mapToInt(Integer::intValue)
+                .filter(id -> id != targetId && !ids.contains(id))
+                .toArray();
+        if (members.length > room) {
+            Arrays.sort(members);
+        }
+        for (int i = 0; i < Math.min(room, members.length); i++) {
+            ids.add(members[i]);
+        }
+    }
+
+    private void post(Features movie, boolean add) {
+        if (add && movie.year() != MovieAttributes.UNKNOWN_YEAR) {
+            // Writes are serialized, so these never race with each other
+            minYear = Math.min(minYear, movie.year());
+            maxYear = Math.max(maxYear, movie.year());
+        }
+        for (long bits = movie.genres(); bits != 0; bits &= bits - 1) {
+            update(byGenreYear, genreYear(Long.numberOfTrailingZeros(bits), movie.year()), movie.movieId(), add);
+        }
+        update(byYear, movie.year(), movie.movieId(), add);
+    }
+
+    private static <K> void update(Map<K, Set<Integer>> postings, K key, int movieId, boolean add) {
+        if (add) {
+            postings.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(movieId);
+        } else {
+            postings.computeIfPresent(key, (k, ids) -> ids.remove(movieId) && ids.isEmpty() ? null : ids);
+        }
+    }
+
+    private static long genreYear(int bit, int year) {
+        return ((long) bit << 32) | (year & 0xFFFFFFFFL);
+    }
+
+    private Neighbors nearest(Features target, Features[] candidates) {
+        int[] ids = new int[MAX_NEIGHBORS];
+        float[] scores = new float[MAX_NEIGHBORS];
+        int count = 0;
+        for (Features candidate : candidates) {
+            if (candidate.movieId() == target.movieId()) {
+                continue;
+            }
+            float score = (float) score(target, candidate);
+            if (score <= 0 || (count == MAX_NEIGHBORS && !ranksAbove(score, candidate.movieId(),
+                    scores[count - 1], ids[count - 1]))) {
+                continue;
+            }
+            int position = Math.min(count, MAX_NEIGHBORS - 1);
+            while (position > 0 && ranksAbove(score, candidate.movieId(), scores[position - 1], ids[position - 1])) {
+                ids[position] = ids[position - 1];
+                scores[position] = scores[position - 1];
+                position--;
+            }
+            ids[position] = candidate.movieId();
+            scores[position] = score;
+            count = Math.min(count + 1, MAX_NEIGHBORS);
+        }
+        return new Neighbors(Arrays.copyOf(ids, count), Arrays.copyOf(scores, count));
+    }
+
+    private static double score(Features a, Features b) {
+        double score = 0;
+        long union = a.genres() | b.genres();
+        if (union != 0) {
+            score += GENRE_WEIGHT * Long.bitCount(a.genres() & b.genres()) / Long.bitCount(union);
+        }
+        if (a.year() != MovieAttributes.UNKNOWN_YEAR && b.year() != MovieAttributes.UNKNOWN_YEAR) {
+            int distance = Math.abs(a.year() - b.year());
+            score += YEAR_WEIGHT * Math.max(0, 1 - (double) distance / YEAR_WINDOW);
+        }
+        if (a.language() != NO_LANGUAGE && a.language() == b.language()) {
+            score += LANGUAGE_WEIGHT;
+        }
+        return score;
+    }
+
+    private static boolean ranksAbove(float score, int movieId, float otherScore, int otherMovieId) {
+        return score > otherScore || (score == otherScore && movieId < otherMovieId);
+    }
+
+    private Features features(MovieEntity movie) {
+        long genres = 0;
+        for (String genre : MovieAttributes.genres(movie)) {
+            // Writes are serialized, so size() hands out each bit once; genres past 64 are not compared
+            int bit = genreBits.computeIfAbsent(genre, g -> genreBits.size());
+            if (bit < Long.SIZE) {
+                genres |= 1L << bit;
+            }
+        }
+        String language = MovieAttributes.language(movie);
+        int languageId = MovieAttributes.UNKNOWN_LANGUAGE.equals(language)
+                ? NO_LANGUAGE
+                : languageIds.computeIfAbsent(language, l -> languageIds.size());
+        return new Features(movie.getMovieId(), genres, MovieAttributes.year(movie), languageId);
+    }
+
+    private record Features(int movieId, long genres, int year, int language) {
+    }
+
+    // Immutable; a change replaces the whole list so readers never see it half updated
+    private record Neighbors(int[] ids, float[] scores) {
+
+        private boolean contains(int movieId) {
+            for (int id : ids) {
+                if (id == movieId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Neighbors offer(int movieId, float score) {
+            int count = ids.length;
+            if (score <= 0 || (count == MAX_NEIGHBORS
+                    && !ranksAbove(score, movieId, scores[count - 1], ids[count - 1]))) {
+                return this;
+            }
+            int position = 0;
+            while (position < count && !ranksAbove(score, movieId, scores[position], ids[position])) {
+                position++;
+            }
+            int size = Math.min(count + 1, MAX_NEIGHBORS);
+            int[] newIds = new int[size];
+            float[] newScores = new float[size];
+            System.arraycopy(ids, 0, newIds, 0, position);
+            System.arraycopy(scores, 0, newScores, 0, position);
+            newIds[position] = movieId;
+            newScores[position] = score;
+            System.arraycopy(ids, position, newIds, position + 1, size - position - 1);
+            System.arraycopy(scores, position, newScores, position + 1, size - position - 1);
+            return new Neighbors(newIds, newScores);
+        }
+    }
+
+    private final class NeighborsTask extends RecursiveAction {
+        private final Features[] movies;
+        private final int from;
+        private final int to;
+
+        private NeighborsTask(Features[] movies, int from, int to) {
+            this.movies = movies;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MOVIES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    if (!neighbors.containsKey(movies[i].movieId()) && features.containsKey(movies[i].movieId())) {
+                        CatalogSimilarity.this.compute(movies[i]);
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new NeighborsTask(movies, from, middle), new NeighborsTask(movies, middle, to));
+        }
+    }
+}
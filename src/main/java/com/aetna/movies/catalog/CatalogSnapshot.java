@@ -0,0 +1,82 @@
+package com.aetna.movies.catalog;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.aetna.movies.entity.MovieEntity;
+
+public class CatalogSnapshot {
+
+    private final CatalogMovies movies = new CatalogMovies();
+    private final CatalogRollups rollups = new CatalogRollups();
+    private final CatalogTopN topN = new CatalogTopN();
+    private final CatalogBitmapIndex bitmaps = new CatalogBitmapIndex();
+    private final CatalogSimilarity similarity = new CatalogSimilarity();
+    private final CatalogIdFilter idFilter = new CatalogIdFilter();
+    private final List<CatalogIndex> indexes = List.of(movies, rollups, topN, bitmaps, similarity, idFilter);
+    private final Instant builtAt = Instant.now();
+
+    private CatalogSnapshot() {
+    }
+
+    public static CatalogSnapshot empty() {
+        return new CatalogSnapshot();
+    }
+
+    public static CatalogSnapshot build(Iterable<MovieEntity> movies) {
+        CatalogSnapshot snapshot = new CatalogSnapshot();
+        for (MovieEntity movie : movies) {
+            snapshot.add(movie);
+        }
+        for (CatalogIndex index : snapshot.indexes) {
+            index.seal();
+        }
+        return snapshot;
+    }
+
+    void add(MovieEntity movie) {
+        for (CatalogIndex index : indexes) {
+            index.add(movie);
+        }
+    }
+
+    void remove(MovieEntity movie) {
+        for (CatalogIndex index : indexes) {
+            index.remove(movie);
+        }
+    }
+
+    void update(List<MovieEntity> removed, List<MovieEntity> added) {
+        for (CatalogIndex index : indexes) {
+            index.update(removed, added);
+        }
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    public CatalogMovies getMovies() {
+        return movies;
+    }
+
+    public CatalogRollups getRollups() {
+        return rollups;
+    }
+
+    public CatalogTopN getTopN() {
+        return topN;
+    }
+
+    public CatalogBitmapIndex getBitmaps() {
+        return bitmaps;
+    }
+
+    public CatalogSimilarity getSimilarity() {
+        return similarity;
+    }
+
+    public CatalogIdFilter getIdFilter() {
+        return idFilter;
+    }
+}
@@ -0,0 +1,120 @@
+package com.aetna.movies.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ToDoubleFunction;
+
+import com.aetna.movies.entity.MovieEntity;
+
+// Posting lists per (year, genre) bucket, presorted by each metric. A top-n read is a bucket
+// lookup plus a copy of the first n entries; a write only invalidates the sort of its buckets.
+public class CatalogTopN implements CatalogIndex {
+
+    public enum Metric {
+        REVENUE(MovieEntity::getRevenue),
+        BUDGET(MovieEntity::getBudget),
+        RUNTIME(MovieEntity::getRuntime);
+
+        private final ToDoubleFunction<MovieEntity> value;
+
+        Metric(ToDoubleFunction<MovieEntity> value) {
+            this.value = value;
+        }
+    }
+
+    private final Map<BucketKey, Bucket> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public void add(MovieEntity movie) {
+        for (BucketKey key : keys(movie)) {
+            buckets.computeIfAbsent(key, k -> new Bucket()).add(movie);
+        }
+    }
+
+    @Override
+    public void remove(MovieEntity movie) {
+        for (BucketKey key : keys(movie)) {
+            Bucket bucket = buckets.get(key);
+            if (bucket != null) {
+                bucket.remove(movie);
+            }
+        }
+    }
+
+    @Override
+    public void seal() {
+        for (Bucket bucket : buckets.values()) {
+            for (Metric metric : Metric.values()) {
+                bucket.sorted(metric);
+            }
+        }
+    }
+
+    public List<MovieEntity> top(Metric metric, Integer year, String genre, int n) {
+        Bucket bucket = buckets.get(new BucketKey(year, genre));
+        if (bucket == null) {
+            return List.of();
+        }
+        MovieEntity[] sorted = bucket.sorted(metric);
+        return Arrays.asList(Arrays.copyOf(sorted, Math.min(n, sorted.length)));
+    }
+
+    private static List<BucketKey> keys(MovieEntity movie) {
+        int year = MovieAttributes.year(movie);
+        List<String> genres = MovieAttributes.genres(movie);
+        List<BucketKey> keys = new ArrayList<>(2 + 2 * genres.size());
+        keys.add(new BucketKey(null, null));
+        keys.add(new BucketKey(year, null));
+        for (String genre : genres) {
+            keys.add(new BucketKey(null, genre));
+            keys.add(new BucketKey(year, genre));
+        }
+        return keys;
+    }
+
+    private record BucketKey(Integer year, String genre) {
+    }
+
+    private static final class Bucket {
+        private final Map<Integer, MovieEntity> movies = new ConcurrentHashMap<>();
+        private final AtomicReferenceArray<MovieEntity[]> sortedByMetric =
+                new AtomicReferenceArray<>(Metric.values().length);
+
+        private synchronized void add(MovieEntity movie) {
+            movies.put(movie.getMovieId(), movie);
+            invalidate();
+        }
+
+        private synchronized void remove(MovieEntity movie) {
+            movies.remove(movie.getMovieId());
+            invalidate();
+        }
+
+        private MovieEntity[] sorted(Metric metric) {
+            MovieEntity[] sorted = sortedByMetric.get(metric.ordinal());
+            return sorted != null ? sorted : sort(metric);
+        }
+
+        private synchronized MovieEntity[] sort(Metric metric) {
+            MovieEntity[] sorted = sortedByMetric.get(metric.ordinal());
+            if (sorted == null) {
+                sorted = movies.values().toArray(new MovieEntity[0]);
+                Arrays.sort(sorted, Comparator.comparingDouble(metric.value).reversed()
+                        .thenComparingInt(MovieEntity::getMovieId));
+                sortedByMetric.set(metric.ordinal(), sorted);
+            }
+            return sorted;
+        }
+
+        private void invalidate() {
+            for (int i = 0; i < sortedByMetric.length(); i++) {
+                sortedByMetric.set(i, null);
+            }
+        }
+    }
+}
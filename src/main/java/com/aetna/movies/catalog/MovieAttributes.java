@@ -0,0 +1,42 @@
+package com.aetna.movies.catalog;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import com.aetna.movies.entity.MovieEntity;
+import com.aetna.movies.mapper.EntityMapper;
+
+public final class MovieAttributes {
+
+    public static final int UNKNOWN_YEAR = 0;
+    public static final String UNKNOWN_LANGUAGE = "unknown";
+
+    private MovieAttributes() {
+    }
+
+    public static int year(MovieEntity movie) {
+        String releaseDate = movie.getReleaseDate();
+        if (releaseDate == null || releaseDate.length() < 4) {
+            return UNKNOWN_YEAR;
+        }
+        int year = 0;
+        for (int i = 0; i < 4; i++) {
+            char c = releaseDate.charAt(i);
+            if (c < '0' || c > '9') {
+                return UNKNOWN_YEAR;
+            }
+            year = year * 10 + (c - '0');
+        }
+        return year;
+    }
+
+    public static List<String> genres(MovieEntity movie) {
+        List<String> genres = EntityMapper.parseGenres(movie.getGenres());
+        return genres.size() > 1 ? List.copyOf(new LinkedHashSet<>(genres)) : genres;
+    }
+
+    public static String language(MovieEntity movie) {
+        String language = movie.getLanguage();
+        return language == null || language.isBlank() ? UNKNOWN_LANGUAGE : language;
+    }
+}
@@ -0,0 +1,77 @@
+package com.aetna.movies.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.List;
+
+import org.springframework.http.MediaType;
+
+import com.aetna.movies.dto.Movie;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+
+// Protobuf encoding of Movie driven by the movies.proto schema, so no generated classes are needed.
+// Streams are left open for the caller.
+public class MovieProtobuf {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-protobuf";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    private static final String SCHEMA_LOCATION = "/movies.proto";
+
+    private final ObjectWriter movieWriter;
+    private final ObjectWriter listWriter;
+    private final ObjectReader movieReader;
+    private final ObjectReader listReader;
+
+    public MovieProtobuf() {
+        URL schema = MovieProtobuf.class.getResource(SCHEMA_LOCATION);
+        if (schema == null) {
+            throw new IllegalStateException("Protobuf schema not found: " + SCHEMA_LOCATION);
+        }
+        try {
+            ProtobufSchema movieSchema = ProtobufSchemaLoader.std.load(schema, "Movie");
+            ProtobufSchema listSchema = ProtobufSchemaLoader.std.load(schema, "MovieList");
+            ProtobufMapper mapper = ProtobufMapper.builder()
+                    .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                    .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+                    .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .build();
+            this.movieWriter = mapper.writerFor(Movie.class).with(movieSchema);
+            this.listWriter = mapper.writerFor(MovieList.class).with(listSchema);
+            this.movieReader = mapper.readerFor(Movie.class).with(movieSchema);
+            this.listReader = mapper.readerFor(MovieList.class).with(listSchema);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load protobuf schema " + SCHEMA_LOCATION, e);
+        }
+    }
+
+    public void write(Movie movie, OutputStream output) throws IOException {
+        movieWriter.writeValue(output, movie);
+    }
+
+    public void writeList(List<Movie> movies, OutputStream output) throws IOException {
+        listWriter.writeValue(output, new MovieList(movies));
+    }
+
+    public Movie read(InputStream input) throws IOException {
+        return movieReader.readValue(input);
+    }
+
+    public List<Movie> readList(InputStream input) throws IOException {
+        MovieList list = listReader.readValue(input);
+        return list.movies() != null ? list.movies() : List.of();
+    }
+
+    record MovieList(List<Movie> movies) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.aetna.movies.codec;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.aetna.movies.dto.Movie;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+// Reads and writes Movie and List<Movie> as application/x-protobuf; every other type is left to the
+// JSON, Smile and CBOR converters.
+public class ProtobufMovieHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final MovieProtobuf protobuf;
+
+    public ProtobufMovieHttpMessageConverter(MovieProtobuf protobuf) {
+        super(MovieProtobuf.MEDIA_TYPE);
+        this.protobuf = protobuf;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Movie.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return isMovieOrMovieList(type) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return isMovieOrMovieList(type != null ? type : clazz) && canWrite(mediaType);
+    }
+
+    // The runtime class of a List<Movie> body does not carry its element type; canWrite checked it
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return Movie.class == clazz || List.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return type == Movie.class
+                    ? protobuf.read(inputMessage.getBody())
+                    : protobuf.readList(inputMessage.getBody());
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException("Invalid protobuf body: " + e.getOriginalMessage(), e,
+                    inputMessage);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (body instanceof Movie movie) {
+            protobuf.write(movie, outputMessage.getBody());
+        } else {
+            protobuf.writeList((List<Movie>) body, outputMessage.getBody());
+        }
+    }
+
+    private static boolean isMovieOrMovieList(Type type) {
+        if (type == Movie.class) {
+            return true;
+        }
+        return type instanceof ParameterizedType parameterized
+                && parameterized.getRawType() instanceof Class<?> raw
+                && List.class.isAssignableFrom(raw)
+                && parameterized.getActualTypeArguments()[0] == Movie.class;
+    }
+}
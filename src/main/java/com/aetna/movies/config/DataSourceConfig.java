@@ -0,0 +1,34 @@
+package com.aetna.movies.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+@Configuration
+public class DataSourceConfig {
+
+    private static final AtomicInteger POOL_GENERATION = new AtomicInteger();
+
+    // Takes the place of the auto-configured pool so the catalog reload can swap databases under it
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment) {
+        return new SwappableDataSource(createPool(properties, environment));
+    }
+
+    // Binds spring.datasource.hikari.* as the auto-configured pool would, for the first pool and every reload
+    public static HikariDataSource createPool(DataSourceProperties properties, Environment environment) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName("movies-db-" + POOL_GENERATION.incrementAndGet());
+        return pool;
+    }
+}
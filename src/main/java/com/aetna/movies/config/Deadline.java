@@ -0,0 +1,19 @@
+package com.aetna.movies.config;
+
+import java.time.Duration;
+
+// The point, on the monotonic clock, after which the caller no longer waits for the response
+public record Deadline(long expiresAtNanos) {
+
+    public static Deadline after(Duration budget) {
+        return new Deadline(System.nanoTime() + budget.toNanos());
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(expiresAtNanos - System.nanoTime(), 0));
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+}
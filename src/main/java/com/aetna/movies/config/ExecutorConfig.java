@@ -0,0 +1,96 @@
+package com.aetna.movies.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Configuration
+@Slf4j
+public class ExecutorConfig {
+
+    private static final int VIRTUAL_THREADS_FEATURE_VERSION = 21;
+
+    public static final String RATINGS_EXECUTOR = "ratingsExecutor";
+    public static final String MVC_ASYNC_EXECUTOR = "mvcAsyncExecutor";
+    public static final String SHARD_QUERY_EXECUTOR = "shardQueryExecutor";
+
+    @Bean
+    public TaskDecorator requestContextTaskDecorator() {
+        return task -> RequestContext.capture().wrap(task);
+    }
+
+    // The HttpClient's executor: it only runs the client's own tasks, never request code, so there is
+    // no request context to carry over
+    @Bean(name = RATINGS_EXECUTOR)
+    public TaskExecutor ratingsExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                        @Value("${ratings.executor.pool-size:8}") int poolSize) {
+        if (virtualThreads(virtualThreads, RATINGS_EXECUTOR)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ratings-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("ratings-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        return executor;
+    }
+
+    // Runs streaming response bodies; our executors above keep Boot from creating applicationTaskExecutor
+    @Bean(name = MVC_ASYNC_EXECUTOR)
+    public AsyncTaskExecutor mvcAsyncExecutor(TaskDecorator requestContextTaskDecorator,
+                                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                              @Value("${movies.async.pool-size:16}") int poolSize) {
+        if (virtualThreads(virtualThreads, MVC_ASYNC_EXECUTOR)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("mvc-async-");
+            executor.setVirtualThreads(true);
+            executor.setTaskDecorator(requestContextTaskDecorator);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("mvc-async-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setTaskDecorator(requestContextTaskDecorator);
+        return executor;
+    }
+
+    // Fans a paged query out to every shard; idle unless movies.storage.shards > 1
+    @Bean(name = SHARD_QUERY_EXECUTOR)
+    public TaskExecutor shardQueryExecutor(TaskDecorator requestContextTaskDecorator,
+                                           @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                           @Value("${movies.storage.query-pool-size:16}") int poolSize) {
+        if (virtualThreads(virtualThreads, SHARD_QUERY_EXECUTOR)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("shard-query-");
+            executor.setVirtualThreads(true);
+            executor.setTaskDecorator(requestContextTaskDecorator);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("shard-query-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setTaskDecorator(requestContextTaskDecorator);
+        return executor;
+    }
+
+    // Virtual threads need a Java 21 runtime; on older ones the flag falls back to the platform thread pool
+    private static boolean virtualThreads(boolean requested, String executor) {
+        if (!requested) {
+            return false;
+        }
+        if (Runtime.version().feature() < VIRTUAL_THREADS_FEATURE_VERSION) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads, {} uses platform threads",
+                    Runtime.version().feature(), executor);
+            return false;
+        }
+        return true;
+    }
+}
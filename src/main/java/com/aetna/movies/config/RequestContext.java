@@ -0,0 +1,43 @@
+package com.aetna.movies.config;
+
+import java.util.Map;
+
+import org.slf4j.MDC;
+
+import com.aetna.movies.metrics.ServerTiming;
+
+// Immutable snapshot of the per-request holders and MDC, used to carry request state
+// across thread hand-offs (platform or virtual threads alike).
+public record RequestContext(String clientRefId, String endpoint, Map<String, String> mdc,
+                             ServerTiming serverTiming, Deadline deadline) {
+
+    public static RequestContext capture() {
+        return new RequestContext(ClientRefIdHolder.getClientRefId(), RequestContextHolder.getEndpoint(),
+                MDC.getCopyOfContextMap(), RequestContextHolder.getServerTiming(), RequestContextHolder.getDeadline());
+    }
+
+    public Runnable wrap(Runnable task) {
+        return () -> {
+            RequestContext previous = capture();
+            install(this);
+            try {
+                task.run();
+            } finally {
+                install(previous);
+            }
+        };
+    }
+
+    private static void install(RequestContext context) {
+        if (context.mdc() != null) {
+            MDC.setContextMap(context.mdc());
+        } else {
+            MDC.clear();
+        }
+        ClientRefIdHolder.setClientRefId(context.clientRefId());
+        RequestContextHolder.setClientRefId(context.clientRefId());
+        RequestContextHolder.setEndpoint(context.endpoint());
+        RequestContextHolder.setServerTiming(context.serverTiming());
+        RequestContextHolder.setDeadline(context.deadline());
+    }
+}
@@ -2,9 +2,14 @@ package com.aetna.movies.config;
 
 import org.springframework.stereotype.Component;
 
+import com.aetna.movies.metrics.ServerTiming;
+
 @Component
 public class RequestContextHolder {
     private static final ThreadLocal<String> clientRefIdHolder = new ThreadLocal<>();
+    private static final ThreadLocal<String> endpointHolder = new ThreadLocal<>();
+    private static final ThreadLocal<ServerTiming> serverTimingHolder = new ThreadLocal<>();
+    private static final ThreadLocal<Deadline> deadlineHolder = new ThreadLocal<>();
 
     public static void setClientRefId(String clientRefId) {
         clientRefIdHolder.set(clientRefId);
@@ -14,7 +19,34 @@ public class RequestContextHolder {
         return clientRefIdHolder.get();
     }
 
+    public static void setEndpoint(String endpoint) {
+        endpointHolder.set(endpoint);
+    }
+
+    public static String getEndpoint() {
+        return endpointHolder.get();
+    }
+
+    public static void setServerTiming(ServerTiming serverTiming) {
+        serverTimingHolder.set(serverTiming);
+    }
+
+    public static ServerTiming getServerTiming() {
+        return serverTimingHolder.get();
+    }
+
+    public static void setDeadline(Deadline deadline) {
+        deadlineHolder.set(deadline);
+    }
+
+    public static Deadline getDeadline() {
+        return deadlineHolder.get();
+    }
+
     public static void clear() {
         clientRefIdHolder.remove();
+        endpointHolder.remove();
+        serverTimingHolder.remove();
+        deadlineHolder.remove();
     }
-} 
\ No newline at end of file
+}
@@ -1,33 +1,101 @@
 package com.aetna.movies.config;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
-import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import com.aetna.movies.exception.DeadlineExceededException;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 
 @Component
 @Slf4j
-public class RequestInterceptor implements HandlerInterceptor {
+public class RequestInterceptor implements AsyncHandlerInterceptor {
 
     private static final String CLIENT_REF_ID_HEADER = "clientRefId";
+    // Remaining budget in milliseconds, relative so it does not depend on the caller's clock
+    public static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+    private static final String ENDPOINT_TIMEOUT_PROPERTY = "movies.deadline.endpoints.";
+    private static final String DEADLINE_ATTRIBUTE = RequestInterceptor.class.getName() + ".deadline";
+
+    private final Environment environment;
+    private final long defaultTimeoutMillis;
+
+    public RequestInterceptor(Environment environment,
+                              @Value("${movies.deadline.default-millis:0}") long defaultTimeoutMillis) {
+        this.environment = environment;
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+    }
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String endpoint = handler instanceof HandlerMethod handlerMethod ? handlerMethod.getMethod().getName() : null;
+        // Checked before any holder is set: afterCompletion does not run when preHandle throws.
+        // An async dispatch keeps the deadline of the original request.
+        Deadline deadline = (Deadline) request.getAttribute(DEADLINE_ATTRIBUTE);
+        if (deadline == null && request.getDispatcherType() != DispatcherType.ASYNC) {
+            deadline = deadline(request.getHeader(REQUEST_TIMEOUT_HEADER), endpoint);
+            if (deadline != null && deadline.isExpired()) {
+                throw new DeadlineExceededException("Request deadline already exceeded");
+            }
+            request.setAttribute(DEADLINE_ATTRIBUTE, deadline);
+        }
+
         String clientRefId = request.getHeader(CLIENT_REF_ID_HEADER);
         log.debug("Received request with clientRefId header: {}", clientRefId);
         if (clientRefId != null && !clientRefId.trim().isEmpty()) {
             ClientRefIdHolder.setClientRefId(clientRefId.trim());
             log.debug("Set clientRefId in holder: {}", clientRefId.trim());
         }
+        if (endpoint != null) {
+            RequestContextHolder.setEndpoint(endpoint);
+        }
+        RequestContextHolder.setDeadline(deadline);
         return true;
     }
 
+    // The header wins over the endpoint's default (movies.deadline.endpoints.<handler method>); 0 means none
+    private Deadline deadline(String header, String endpoint) {
+        long timeoutMillis;
+        if (header != null && !header.isBlank()) {
+            try {
+                timeoutMillis = Long.parseLong(header.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(REQUEST_TIMEOUT_HEADER + " must be a number of milliseconds");
+            }
+            if (timeoutMillis <= 0) {
+                return new Deadline(System.nanoTime());
+            }
+        } else {
+            timeoutMillis = endpoint != null
+                    ? environment.getProperty(ENDPOINT_TIMEOUT_PROPERTY + endpoint, Long.class, defaultTimeoutMillis)
+                    : defaultTimeoutMillis;
+            if (timeoutMillis <= 0) {
+                return null;
+            }
+        }
+        return Deadline.after(Duration.ofMillis(timeoutMillis));
+    }
+
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
         String clientRefId = ClientRefIdHolder.getClientRefId();
         log.debug("Clearing clientRefId from holder: {}", clientRefId);
         ClientRefIdHolder.clear();
+        RequestContextHolder.clear();
+    }
+
+    // The container thread is released while an async handler runs; the async dispatch sets the holders again
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ClientRefIdHolder.clear();
+        RequestContextHolder.clear();
     }
-} 
\ No newline at end of file
+}
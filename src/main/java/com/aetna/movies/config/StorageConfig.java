@@ -0,0 +1,61 @@
+package com.aetna.movies.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.function.SingletonSupplier;
+
+import com.aetna.movies.metrics.SlowQueryLog;
+import com.aetna.movies.metrics.StageMetrics;
+import com.aetna.movies.metrics.StatementTimingDataSource;
+import com.aetna.movies.repository.MovieStore;
+import com.aetna.movies.repository.MoviesRepository;
+import com.aetna.movies.repository.ShardedMovieStore;
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Configuration
+@Slf4j
+public class StorageConfig {
+
+    // Decided at runtime rather than with conditions, which AOT would fix at build time
+    @Bean
+    @Primary
+    public MovieStore movieStore(MoviesRepository moviesRepository, DataSourceProperties dataSourceProperties,
+                                 ObjectProvider<StageMetrics> stageMetrics, ObjectProvider<SlowQueryLog> slowQueryLog,
+                                 @Qualifier(ExecutorConfig.SHARD_QUERY_EXECUTOR) Executor shardQueryExecutor,
+                                 @Value("${movies.storage.shards:1}") int shards,
+                                 @Value("${movies.storage.shard-url-pattern:}") String shardUrlPattern,
+                                 @Value("${movies.storage.shard-pool-size:4}") int shardPoolSize) {
+        if (shards <= 1) {
+            return moviesRepository;
+        }
+        if (!shardUrlPattern.contains("%d")) {
+            throw new IllegalArgumentException("movies.storage.shard-url-pattern must contain %d for the shard number");
+        }
+        SingletonSupplier<StageMetrics> metrics = SingletonSupplier.of(stageMetrics::getObject);
+        SingletonSupplier<SlowQueryLog> slowQueries = SingletonSupplier.of(slowQueryLog::getObject);
+        List<DataSource> shardDataSources = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setJdbcUrl(String.format(shardUrlPattern, shard));
+            pool.setDriverClassName(dataSourceProperties.getDriverClassName());
+            pool.setMaximumPoolSize(shardPoolSize);
+            pool.setPoolName("movies-shard-" + shard);
+            shardDataSources.add(new StatementTimingDataSource(pool, metrics, slowQueries));
+        }
+        log.info("Serving movies from {} shards at {}", shards, shardUrlPattern);
+        return new ShardedMovieStore(shardDataSources, shardQueryExecutor);
+    }
+}
@@ -0,0 +1,39 @@
+package com.aetna.movies.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+// Hands out connections from whichever pool is current. A swap only affects connections opened
+// afterwards, so a request that already holds one finishes against the previous database.
+public class SwappableDataSource extends AbstractDataSource {
+
+    private final AtomicReference<DataSource> target;
+
+    public SwappableDataSource(DataSource initialTarget) {
+        this.target = new AtomicReference<>(initialTarget);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return target.get().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return target.get().getConnection(username, password);
+    }
+
+    public DataSource getTarget() {
+        return target.get();
+    }
+
+    // Returns the previous target, which the caller is responsible for closing once drained
+    public DataSource swap(DataSource next) {
+        return target.getAndSet(next);
+    }
+}
@@ -1,20 +1,54 @@
 package com.aetna.movies.config;
 
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.aetna.movies.admission.AdmissionInterceptor;
+import com.aetna.movies.codec.MovieProtobuf;
+import com.aetna.movies.codec.ProtobufMovieHttpMessageConverter;
+import com.aetna.movies.metrics.ServerTimingInterceptor;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
     private final RequestInterceptor requestInterceptor;
+    private final ServerTimingInterceptor serverTimingInterceptor;
+    private final AdmissionInterceptor admissionInterceptor;
+    private final AsyncTaskExecutor mvcAsyncExecutor;
 
-    public WebConfig(RequestInterceptor requestInterceptor) {
+    public WebConfig(RequestInterceptor requestInterceptor, ServerTimingInterceptor serverTimingInterceptor,
+                     AdmissionInterceptor admissionInterceptor,
+                     @Qualifier(ExecutorConfig.MVC_ASYNC_EXECUTOR) AsyncTaskExecutor mvcAsyncExecutor) {
         this.requestInterceptor = requestInterceptor;
+        this.serverTimingInterceptor = serverTimingInterceptor;
+        this.admissionInterceptor = admissionInterceptor;
+        this.mvcAsyncExecutor = mvcAsyncExecutor;
     }
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(requestInterceptor);
+        // After requestInterceptor, so the serialization stage is recorded before the endpoint is cleared
+        registry.addInterceptor(serverTimingInterceptor).addPathPatterns("/api/v1/movies/**");
+        registry.addInterceptor(admissionInterceptor).addPathPatterns("/api/**");
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor);
+    }
+
+    // Smile and CBOR converters are added by Spring MVC when their Jackson modules are on the classpath.
+    // Appended last so JSON stays the default when the client accepts anything.
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new ProtobufMovieHttpMessageConverter(new MovieProtobuf()));
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,45 @@
+package com.aetna.movies.controller;
+
+import java.io.IOException;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.aetna.movies.config.ClientRefIdHolder;
+import com.aetna.movies.ingest.ImportFormat;
+import com.aetna.movies.ingest.ImportResult;
+import com.aetna.movies.ingest.MovieImporter;
+
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@RequestMapping("/api/v1/admin")
+@Slf4j
+@Tag(name = "Admin", description = "API for maintaining the movie catalog")
+public class AdminController {
+
+    private final MovieImporter movieImporter;
+
+    public AdminController(MovieImporter movieImporter) {
+        this.movieImporter = movieImporter;
+    }
+
+    // The request body is streamed straight into the importer, so uploads of any size are fine.
+    // Each committed chunk is applied to the catalog snapshot as it lands, so no reload is needed.
+    @RequestMapping(value = "/movies/import", method = RequestMethod.POST)
+    public ResponseEntity<ImportResult> importMovies(
+            @Parameter(description = "Body format: csv (with header row) or jsonl", example = "csv")
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            HttpServletRequest request) throws IOException {
+        ImportFormat importFormat = ImportFormat.parse(format);
+        log.info("Importing movies as {} with clientRefId: {}", importFormat, ClientRefIdHolder.getClientRefId());
+        ImportResult result = movieImporter.importMovies(request.getInputStream(), importFormat);
+        return ResponseEntity.ok(result);
+    }
+}
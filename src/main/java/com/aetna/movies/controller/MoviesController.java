@@ -1,19 +1,46 @@
 package com.aetna.movies.controller;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.aetna.movies.catalog.CatalogBitmapIndex;
+import com.aetna.movies.catalog.CatalogRollups;
+import com.aetna.movies.catalog.CatalogSimilarity;
+import com.aetna.movies.catalog.CatalogTopN;
 import com.aetna.movies.config.ClientRefIdHolder;
 import com.aetna.movies.dto.Movie;
+import com.aetna.movies.dto.MovieChange;
+import com.aetna.movies.dto.MovieFilter;
+import com.aetna.movies.dto.MovieStats;
+import com.aetna.movies.dto.Rating;
+import com.aetna.movies.exception.MoviesServiceException;
 import com.aetna.movies.exception.ResourceNotFoundException;
+import com.aetna.movies.repository.MovieSort;
 import com.aetna.movies.service.MoviesService;
+import com.aetna.movies.service.MoviesService.RatingsDefault;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -25,9 +52,21 @@ import lombok.extern.slf4j.Slf4j;
 @Tag(name = "Movies", description = "API for managing and retrieving movie information")
 public class MoviesController {
 
+    private static final int MAX_TOP_N = 100;
+    private static final ObjectWriter CHANGE_WRITER = new ObjectMapper().writerFor(MovieChange.class);
+    // Compact JSON never contains a newline, so each payload fits on a single data: line
+    private static final ObjectWriter MOVIES_WRITER = new ObjectMapper().writerFor(new TypeReference<List<Movie>>() { });
+    private static final ObjectWriter RATINGS_WRITER = new ObjectMapper().writerFor(new TypeReference<List<Rating>>() { });
+    private static final byte[] EMPTY_DATA = "{}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] EVENT_END = "\n\n".getBytes(StandardCharsets.UTF_8);
+
     @Autowired
     private MoviesService moviesService;
 
+    // The change feed reads the primary database, which a sharded catalog does not serve
+    @Value("${movies.storage.shards:1}")
+    private int shards;
+
     public MoviesController(MoviesService moviesService) {
         this.moviesService = moviesService;
     }
@@ -38,31 +77,96 @@ public class MoviesController {
         }
     }
 
+    // null when include is absent, so the service applies the endpoint's configured default
+    private Boolean includeRatings(String include) {
+        if (include == null) {
+            return null;
+        }
+        boolean ratings = false;
+        for (String value : include.split(",")) {
+            String name = value.trim().toLowerCase(Locale.ROOT);
+            if (name.equals("ratings")) {
+                ratings = true;
+            } else if (!name.isEmpty()) {
+                throw new IllegalArgumentException("Invalid include: " + value.trim() + ". Supported values: ratings");
+            }
+        }
+        return ratings;
+    }
+
+    private void validateFilter(MovieFilter filter, int depth) {
+        if (depth > CatalogBitmapIndex.MAX_FILTER_DEPTH) {
+            throw new IllegalArgumentException(
+                    "Filters can be nested at most " + CatalogBitmapIndex.MAX_FILTER_DEPTH + " levels deep");
+        }
+        validateRange("year", filter.getYearFrom(), filter.getYearTo());
+        validateRange("runtime", filter.getRuntimeMin(), filter.getRuntimeMax());
+        validateRange("budget", filter.getBudgetMin(), filter.getBudgetMax());
+        if (filter.getAnd() != null) {
+            filter.getAnd().forEach(child -> validateFilter(child, depth + 1));
+        }
+        if (filter.getOr() != null) {
+            filter.getOr().forEach(child -> validateFilter(child, depth + 1));
+        }
+    }
+
+    private <T extends Comparable<T>> void validateRange(String field, T from, T to) {
+        if (from != null && to != null && from.compareTo(to) > 0) {
+            throw new IllegalArgumentException("Invalid " + field + " range: " + from + " is greater than " + to);
+        }
+    }
+
     @RequestMapping(value = "/", method = RequestMethod.GET)
     public ResponseEntity<List<Movie>> getAllMovies(
             @Parameter(description = "Page number (1-based)", example = "1") @RequestParam(defaultValue = "1") int page,
-            @Parameter(description = "Number of items per page", example = "50") @RequestParam(defaultValue = "50") int size) {
+            @Parameter(description = "Number of items per page", example = "50") @RequestParam(defaultValue = "50") int size,
+            @Parameter(description = "Order: field[,asc|desc] with field one of title, releaseDate, revenue, budget, runtime",
+                    example = "releaseDate,desc")
+            @RequestParam(value = "sort", required = false) String sort,
+            @Parameter(description = "Related data to embed: ratings, or empty for none. Defaults per endpoint",
+                    example = "ratings")
+            @RequestParam(value = "include", required = false) String include) {
         validatePaginationParams(page, size);
+        return ResponseEntity.ok(findAllMovies(page, size, MovieSort.parse(sort), includeRatings(include)));
+    }
+
+    // Same list as text/event-stream: the movies as soon as they are read, their ratings once they arrive
+    @RequestMapping(value = "/", method = RequestMethod.GET, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllMovies(
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "include", required = false) String include) {
+        validatePaginationParams(page, size);
+        boolean ratings = moviesService.includeRatings(RatingsDefault.ALL, includeRatings(include));
+        return progressive(findAllMovies(page, size, MovieSort.parse(sort), false), ratings);
+    }
+
+    private List<Movie> findAllMovies(int page, int size, Sort sort, Boolean includeRatings) {
         log.debug("Getting all movies with clientRefId: {}", ClientRefIdHolder.getClientRefId());
-        List<Movie> movies = moviesService.getAllMovies(page, size);
+        List<Movie> movies = moviesService.getAllMovies(page, size, sort, includeRatings);
         log.debug("Retrieved {} movies with clientRefId: {}", movies.size(), ClientRefIdHolder.getClientRefId());
         if (movies.isEmpty()) {
             throw new ResourceNotFoundException("No movies found");
         }
-        return ResponseEntity.ok(movies);
+        return movies;
     }
 
     @RequestMapping(value = "/{id}", method = RequestMethod.GET)
     public ResponseEntity<Movie> getMovieById(
             @Parameter(description = "ID of the movie to retrieve", required = true, example = "1") 
-            @PathVariable("id") String idStr) {
+            @PathVariable("id") String idStr,
+            @Parameter(description = "Related data to embed: ratings, or empty for none. Defaults per endpoint",
+                    example = "ratings")
+            @RequestParam(value = "include", required = false) String include) {
+        Boolean includeRatings = includeRatings(include);
         try {
             int id = Integer.parseInt(idStr);
             if (id <= 0) {
                 throw new IllegalArgumentException("ID must be a positive integer");
             }
             log.debug("Getting movie with ID {} and clientRefId: {}", id, ClientRefIdHolder.getClientRefId());
-            Movie movie = moviesService.getMovieDetails(id);
+            Movie movie = moviesService.getMovieDetails(id, includeRatings);
             if (movie == null) {
                 throw new ResourceNotFoundException("Movie not found with id: " + id);
             }
@@ -73,6 +177,35 @@ public class MoviesController {
         }
     }
 
+    @RequestMapping(value = "/{id}/similar", method = RequestMethod.GET)
+    public ResponseEntity<List<Movie>> getSimilarMovies(
+            @Parameter(description = "ID of the movie to find similar movies for", required = true, example = "1")
+            @PathVariable("id") String idStr,
+            @Parameter(description = "Number of movies to return (1-" + CatalogSimilarity.MAX_NEIGHBORS + ")", example = "10")
+            @RequestParam(value = "n", defaultValue = "10") int n) {
+        if (n <= 0 || n > CatalogSimilarity.MAX_NEIGHBORS) {
+            throw new IllegalArgumentException("n must be between 1 and " + CatalogSimilarity.MAX_NEIGHBORS);
+        }
+        int id;
+        try {
+            id = Integer.parseInt(idStr);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid ID format: " + idStr);
+        }
+        if (id <= 0) {
+            throw new IllegalArgumentException("ID must be a positive integer");
+        }
+        log.debug("Getting {} movies similar to {} with clientRefId: {}", n, id, ClientRefIdHolder.getClientRefId());
+        List<Movie> movies = moviesService.getSimilarMovies(id, n);
+        if (movies == null) {
+            throw new ResourceNotFoundException("Movie not found with id: " + id);
+        }
+        if (movies.isEmpty()) {
+            throw new ResourceNotFoundException("No similar movies found for id: " + id);
+        }
+        return ResponseEntity.ok(movies);
+    }
+
     @RequestMapping(value = "/year/{year}", method = RequestMethod.GET)
     public ResponseEntity<List<Movie>> getMoviesByYear(
         @Parameter(description = "Release year of the movies", required = true, example = "2022")
@@ -80,21 +213,43 @@ public class MoviesController {
         @Parameter(description = "Page number (0-based)", required = false, example = "0")
         @RequestParam(defaultValue = "0") int page,
         @Parameter(description = "Number of items per page", required = false, example = "10")
-        @RequestParam(defaultValue = "10") int size
+        @RequestParam(defaultValue = "10") int size,
+        @Parameter(description = "Order: field[,asc|desc] with field one of title, releaseDate, revenue, budget, runtime",
+                example = "revenue,desc")
+        @RequestParam(value = "sort", required = false) String sort,
+        @Parameter(description = "Related data to embed: ratings, or empty for none. Defaults per endpoint",
+                example = "ratings")
+        @RequestParam(value = "include", required = false) String include
     ) {
         validatePaginationParams(page, size);
+        return ResponseEntity.ok(findMoviesByYear(yearStr, page, size, MovieSort.parse(sort), includeRatings(include)));
+    }
+
+    @RequestMapping(value = "/year/{year}", method = RequestMethod.GET, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamMoviesByYear(
+            @PathVariable("year") String yearStr,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "include", required = false) String include) {
+        validatePaginationParams(page, size);
+        boolean ratings = moviesService.includeRatings(RatingsDefault.YEAR, includeRatings(include));
+        return progressive(findMoviesByYear(yearStr, page, size, MovieSort.parse(sort), false), ratings);
+    }
+
+    private List<Movie> findMoviesByYear(String yearStr, int page, int size, Sort sort, Boolean includeRatings) {
         try {
             int year = Integer.parseInt(yearStr);
             if (year < 1900 || year > 2100) {
                 throw new IllegalArgumentException("Year must be between 1900 and 2100");
             }
             log.debug("Getting movies for year {} with clientRefId: {}", year, ClientRefIdHolder.getClientRefId());
-            List<Movie> movies = moviesService.getAllMoviesByYear(year, page, size);
+            List<Movie> movies = moviesService.getAllMoviesByYear(year, page, size, sort, includeRatings);
             log.debug("Retrieved {} movies for year {} with clientRefId: {}", movies.size(), year, ClientRefIdHolder.getClientRefId());
             if (movies.isEmpty()) {
                 throw new ResourceNotFoundException("No movies found for year: " + year);
             }
-            return ResponseEntity.ok(movies);
+            return movies;
         } catch (NumberFormatException e) {
             throw new IllegalArgumentException("Invalid year format: " + yearStr);
         }
@@ -104,17 +259,161 @@ public class MoviesController {
     public ResponseEntity<List<Movie>> getMoviesByGenre(
             @Parameter(description = "Genre to filter by", example = "Action") @PathVariable String genre,
             @Parameter(description = "Page number", example = "1") @RequestParam(value = "page", defaultValue = "1") int page,
-            @Parameter(description = "Page size", example = "50") @RequestParam(value = "size", defaultValue = "50") int size) {
+            @Parameter(description = "Page size", example = "50") @RequestParam(value = "size", defaultValue = "50") int size,
+            @Parameter(description = "Order: field[,asc|desc] with field one of title, releaseDate, revenue, budget, runtime",
+                    example = "releaseDate,desc")
+            @RequestParam(value = "sort", required = false) String sort,
+            @Parameter(description = "Related data to embed: ratings, or empty for none. Defaults per endpoint",
+                    example = "ratings")
+            @RequestParam(value = "include", required = false) String include) {
+        validatePaginationParams(page, size);
+        return ResponseEntity.ok(findMoviesByGenre(genre, page, size, MovieSort.parse(sort), includeRatings(include)));
+    }
+
+    @RequestMapping(value = "/genre/{genre}", method = RequestMethod.GET, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamMoviesByGenre(
+            @PathVariable String genre,
+            @RequestParam(value = "page", defaultValue = "1") int page,
+            @RequestParam(value = "size", defaultValue = "50") int size,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "include", required = false) String include) {
         validatePaginationParams(page, size);
+        boolean ratings = moviesService.includeRatings(RatingsDefault.GENRE, includeRatings(include));
+        return progressive(findMoviesByGenre(genre, page, size, MovieSort.parse(sort), false), ratings);
+    }
+
+    private List<Movie> findMoviesByGenre(String genre, int page, int size, Sort sort, Boolean includeRatings) {
         if (genre == null || genre.trim().isEmpty()) {
             throw new IllegalArgumentException("Genre parameter cannot be null or empty");
         }
         log.debug("Getting movies for genre {} with clientRefId: {}", genre, ClientRefIdHolder.getClientRefId());
-        List<Movie> movies = moviesService.getAllMoviesByGenre(genre, page, size);
+        List<Movie> movies = moviesService.getAllMoviesByGenre(genre, page, size, sort, includeRatings);
         log.debug("Retrieved {} movies for genre {} with clientRefId: {}", movies.size(), genre, ClientRefIdHolder.getClientRefId());
         if (movies.isEmpty()) {
             throw new ResourceNotFoundException("No movies found for genre: " + genre);
         }
+        return movies;
+    }
+
+    // Events: "movies" (the page without ratings), "ratings" ([{"movieId", "rating"}] patches) and "done".
+    // Runs on the MVC async executor, so the movies are flushed before the ratings call is made.
+    private ResponseEntity<StreamingResponseBody> progressive(List<Movie> movies, boolean ratings) {
+        StreamingResponseBody body = output -> {
+            writeEvent(output, "movies", MOVIES_WRITER.writeValueAsBytes(movies));
+            if (ratings) {
+                List<Rating> patches = moviesService.getRatings(movies);
+                if (!patches.isEmpty()) {
+                    writeEvent(output, "ratings", RATINGS_WRITER.writeValueAsBytes(patches));
+                }
+            }
+            writeEvent(output, "done", EMPTY_DATA);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .cacheControl(CacheControl.noCache())
+                .body(body);
+    }
+
+    private static void writeEvent(OutputStream output, String event, byte[] data) throws IOException {
+        output.write(("event: " + event + "\ndata: ").getBytes(StandardCharsets.UTF_8));
+        output.write(data);
+        output.write(EVENT_END);
+        output.flush();
+    }
+
+    @RequestMapping(value = "/top", method = RequestMethod.GET)
+    public ResponseEntity<List<Movie>> getTopMovies(
+            @Parameter(description = "Metric to rank by: revenue, budget or runtime", example = "revenue")
+            @RequestParam(value = "by", defaultValue = "revenue") String by,
+            @Parameter(description = "Only rank movies released in this year", example = "1995")
+            @RequestParam(value = "year", required = false) Integer year,
+            @Parameter(description = "Only rank movies of this genre", example = "Action")
+            @RequestParam(value = "genre", required = false) String genre,
+            @Parameter(description = "Number of movies to return (1-100)", example = "10")
+            @RequestParam(value = "n", defaultValue = "10") int n) {
+        if (n <= 0 || n > MAX_TOP_N) {
+            throw new IllegalArgumentException("n must be between 1 and " + MAX_TOP_N);
+        }
+        CatalogTopN.Metric metric;
+        try {
+            metric = CatalogTopN.Metric.valueOf(by.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid ranking metric: " + by);
+        }
+        log.debug("Getting top {} movies by {} with clientRefId: {}", n, metric, ClientRefIdHolder.getClientRefId());
+        List<Movie> movies = moviesService.getTopMovies(metric, year, genre, n);
+        if (movies.isEmpty()) {
+            throw new ResourceNotFoundException("No movies found for the requested ranking");
+        }
+        return ResponseEntity.ok(movies);
+    }
+
+    @RequestMapping(value = "/stats", method = RequestMethod.GET)
+    public ResponseEntity<List<MovieStats>> getCatalogStats(
+            @Parameter(description = "Dimensions to group by: year, genre, language", example = "year,genre")
+            @RequestParam(value = "groupBy", required = false) List<String> groupBy,
+            @Parameter(description = "Only include this release year", example = "1995")
+            @RequestParam(value = "year", required = false) Integer year,
+            @Parameter(description = "Only include this genre", example = "Action")
+            @RequestParam(value = "genre", required = false) String genre,
+            @Parameter(description = "Only include this original language", example = "en")
+            @RequestParam(value = "language", required = false) String language) {
+        Set<CatalogRollups.Dimension> dimensions = EnumSet.noneOf(CatalogRollups.Dimension.class);
+        if (groupBy != null) {
+            for (String dimension : groupBy) {
+                try {
+                    dimensions.add(CatalogRollups.Dimension.valueOf(dimension.trim().toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Invalid groupBy dimension: " + dimension);
+                }
+            }
+        }
+        log.debug("Getting catalog stats grouped by {} with clientRefId: {}", dimensions, ClientRefIdHolder.getClientRefId());
+        List<MovieStats> stats = moviesService.getCatalogStats(dimensions, year, genre, language);
+        if (stats.isEmpty()) {
+            throw new ResourceNotFoundException("No movies found for the requested statistics");
+        }
+        return ResponseEntity.ok(stats);
+    }
+
+    @RequestMapping(value = "/query", method = RequestMethod.POST)
+    public ResponseEntity<List<Movie>> queryMovies(
+            @RequestBody(required = false) MovieFilter filter,
+            @Parameter(description = "Page number (0-based)", example = "0") @RequestParam(value = "page", defaultValue = "0") int page,
+            @Parameter(description = "Page size", example = "50") @RequestParam(value = "size", defaultValue = "50") int size) {
+        validatePaginationParams(page, size);
+        MovieFilter criteria = filter != null ? filter : new MovieFilter();
+        validateFilter(criteria, 1);
+        log.debug("Querying movies with clientRefId: {}", ClientRefIdHolder.getClientRefId());
+        List<Movie> movies = moviesService.queryMovies(criteria, page, size);
+        if (movies.isEmpty()) {
+            throw new ResourceNotFoundException("No movies found matching the query");
+        }
         return ResponseEntity.ok(movies);
     }
-}
\ No newline at end of file
+
+    // One JSON object per line in change version order; a mirror resumes from the last changeVersion it read
+    @RequestMapping(value = "/changes", method = RequestMethod.GET)
+    public ResponseEntity<StreamingResponseBody> getChanges(
+            @Parameter(description = "Only return movies changed after this change version", example = "0")
+            @RequestParam(value = "since", defaultValue = "0") long since) {
+        if (since < 0) {
+            throw new IllegalArgumentException("since must be >= 0");
+        }
+        // Checked before the body starts streaming, while an error status can still be sent
+        if (shards > 1) {
+            throw new MoviesServiceException("The change feed reads the primary database and is not available "
+                    + "with movies.storage.shards > 1");
+        }
+        log.debug("Streaming changes since {} with clientRefId: {}", since, ClientRefIdHolder.getClientRefId());
+        StreamingResponseBody body = output -> moviesService.streamChanges(since, change -> {
+            try {
+                output.write(CHANGE_WRITER.writeValueAsBytes(change));
+                output.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
@@ -0,0 +1,16 @@
+package com.aetna.movies.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieChange {
+
+    long changeVersion;
+    Movie movie;
+}
@@ -0,0 +1,29 @@
+package com.aetna.movies.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One node of a catalog query. Every condition set on a node must hold (AND); "and" nests filters
+// that must all match, "or" nests filters of which at least one must match. Range bounds are inclusive.
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieFilter {
+
+    List<MovieFilter> and;
+    List<MovieFilter> or;
+    String genre;
+    String language;
+    String status;
+    Integer yearFrom;
+    Integer yearTo;
+    Double runtimeMin;
+    Double runtimeMax;
+    Long budgetMin;
+    Long budgetMax;
+}
@@ -0,0 +1,27 @@
+package com.aetna.movies.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MovieStats {
+
+    Integer year;
+    String genre;
+    String language;
+    long count;
+    long totalBudget;
+    double averageBudget;
+    double totalRevenue;
+    double averageRevenue;
+    double averageRuntime;
+    double runtimeStdDev;
+}
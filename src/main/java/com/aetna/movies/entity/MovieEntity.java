@@ -1,8 +1,12 @@
 package com.aetna.movies.entity;
 
+import com.aetna.movies.repository.ChangeVersionListener;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
@@ -10,7 +14,16 @@ import lombok.Setter;
 @Entity
 @Getter
 @Setter
-@Table(name = "movies")
+@EntityListeners(ChangeVersionListener.class)
+// One (column, movieId) index per MovieSort, so paged reads never sort the whole table
+@Table(name = "movies", indexes = {
+    @Index(name = "idx_movies_change_version", columnList = "changeVersion"),
+    @Index(name = "idx_movies_title", columnList = "title, movieId"),
+    @Index(name = "idx_movies_release_date", columnList = "releaseDate, movieId"),
+    @Index(name = "idx_movies_revenue", columnList = "revenue, movieId"),
+    @Index(name = "idx_movies_budget", columnList = "budget, movieId"),
+    @Index(name = "idx_movies_runtime", columnList = "runtime, movieId")
+})
 public class MovieEntity {
 
   @Id
@@ -49,4 +62,8 @@ public class MovieEntity {
 
   @Column(name = "status")
   String status;
+
+  // Catalog-wide write counter value of the last change to this row; see ChangeVersionGenerator
+  @Column(name = "changeVersion", columnDefinition = "INTEGER NOT NULL DEFAULT 0")
+  long changeVersion;
   }
\ No newline at end of file
@@ -1,31 +1,56 @@
 package com.aetna.movies.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final ObjectWriter ERROR_WRITER = new ObjectMapper().writerFor(ErrorDetails.class);
+
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<?> handleResourceNotFoundException(ResourceNotFoundException ex, WebRequest request) {
-        ErrorDetails errorDetails = new ErrorDetails(HttpStatus.NOT_FOUND.value(), ex.getMessage(), request.getDescription(false));
-        return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
+        return error(ResponseEntity.status(HttpStatus.NOT_FOUND), HttpStatus.NOT_FOUND, ex.getMessage(), request);
     }
 
     @ExceptionHandler(MoviesServiceException.class)
     public ResponseEntity<?> handleMoviesServiceException(MoviesServiceException ex, WebRequest request) {
-        ErrorDetails errorDetails = new ErrorDetails(HttpStatus.INTERNAL_SERVER_ERROR.value(), ex.getMessage(), request.getDescription(false));
-        return new ResponseEntity<>(errorDetails, HttpStatus.INTERNAL_SERVER_ERROR);
+        return error(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR), HttpStatus.INTERNAL_SERVER_ERROR,
+                ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<?> handleTooManyRequestsException(TooManyRequestsException ex, WebRequest request) {
+        return error(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1"),
+                HttpStatus.TOO_MANY_REQUESTS, ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<?> handleServiceOverloadedException(ServiceOverloadedException ex, WebRequest request) {
+        return error(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1"),
+                HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<?> handleDeadlineExceededException(DeadlineExceededException ex, WebRequest request) {
+        return error(ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT), HttpStatus.GATEWAY_TIMEOUT,
+                ex.getMessage(), request);
     }
 
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<?> handleIllegalArgumentException(IllegalArgumentException ex, WebRequest request) {
-        ErrorDetails errorDetails = new ErrorDetails(HttpStatus.BAD_REQUEST.value(), ex.getMessage(), request.getDescription(false));
-        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+        return error(ResponseEntity.status(HttpStatus.BAD_REQUEST), HttpStatus.BAD_REQUEST, ex.getMessage(), request);
     }
 
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
@@ -33,14 +58,48 @@ public class GlobalExceptionHandler {
         String message = String.format("Failed to convert value of type '%s' to required type '%s'",
                 ex.getValue().getClass().getName(),
                 ex.getRequiredType().getSimpleName());
-        ErrorDetails errorDetails = new ErrorDetails(HttpStatus.BAD_REQUEST.value(), message, request.getDescription(false));
-        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+        return error(ResponseEntity.status(HttpStatus.BAD_REQUEST), HttpStatus.BAD_REQUEST, message, request);
     }
 
     // Handle other exceptions
     @ExceptionHandler(Exception.class)
     public ResponseEntity<?> handleGlobalException(Exception ex, WebRequest request) {
-        ErrorDetails errorDetails = new ErrorDetails(HttpStatus.INTERNAL_SERVER_ERROR.value(), ex.getMessage(), request.getDescription(false));
-        return new ResponseEntity<>(errorDetails, HttpStatus.INTERNAL_SERVER_ERROR);
+        return error(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR), HttpStatus.INTERNAL_SERVER_ERROR,
+                ex.getMessage(), request);
+    }
+
+    // A client that asked for text/event-stream cannot read a JSON body, so it gets the same status with the
+    // details as a single "error" event
+    private static ResponseEntity<?> error(ResponseEntity.BodyBuilder response, HttpStatus status, String message,
+                                           WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(status.value(), message, request.getDescription(false));
+        if (!wantsEventStream(request)) {
+            return response.body(errorDetails);
+        }
+        try {
+            return response.contentType(MediaType.TEXT_EVENT_STREAM)
+                    .body("event: error\ndata: " + ERROR_WRITER.writeValueAsString(errorDetails) + "\n\n");
+        } catch (JsonProcessingException e) {
+            return response.body(errorDetails);
+        }
+    }
+
+    private static boolean wantsEventStream(WebRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return false;
+        }
+        try {
+            boolean eventStream = false;
+            for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+                if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+                    return false;
+                }
+                eventStream |= mediaType.equalsTypeAndSubtype(MediaType.TEXT_EVENT_STREAM);
+            }
+            return eventStream;
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,70 @@
+package com.aetna.movies.ingest;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Maps genre names (any case) or ids onto the canonical genre list and renders them in the
+// [{"id": 28, "name": "Action"}] form the movies table stores. Unknown genres reject the row.
+public final class GenreNormalizer {
+
+    private static final Map<String, Genre> GENRES = new LinkedHashMap<>();
+
+    static {
+        register(28, "Action");
+        register(12, "Adventure");
+        register(16, "Animation");
+        register(35, "Comedy");
+        register(80, "Crime");
+        register(99, "Documentary");
+        register(18, "Drama");
+        register(10751, "Family");
+        register(14, "Fantasy");
+        register(36, "History");
+        register(27, "Horror");
+        register(10402, "Music");
+        register(9648, "Mystery");
+        register(10749, "Romance");
+        register(878, "Science Fiction");
+        register(10770, "TV Movie");
+        register(53, "Thriller");
+        register(10752, "War");
+        register(37, "Western");
+    }
+
+    private GenreNormalizer() {
+    }
+
+    public static String normalize(List<String> genres) {
+        Map<Integer, Genre> normalized = new LinkedHashMap<>();
+        for (String value : genres) {
+            String key = value.trim().toLowerCase(Locale.ROOT);
+            if (key.isEmpty()) {
+                continue;
+            }
+            Genre genre = GENRES.get(key);
+            if (genre == null) {
+                throw new IllegalArgumentException("Unknown genre: " + value);
+            }
+            normalized.putIfAbsent(genre.id(), genre);
+        }
+        StringBuilder json = new StringBuilder("[");
+        for (Genre genre : normalized.values()) {
+            if (json.length() > 1) {
+                json.append(", ");
+            }
+            json.append("{\"id\": ").append(genre.id()).append(", \"name\": \"").append(genre.name()).append("\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    private static void register(int id, String name) {
+        Genre genre = new Genre(id, name);
+        GENRES.put(name.toLowerCase(Locale.ROOT), genre);
+        GENRES.put(Integer.toString(id), genre);
+    }
+
+    private record Genre(int id, String name) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.aetna.movies.ingest;
+
+import java.util.Locale;
+
+public enum ImportFormat {
+    CSV,
+    JSONL;
+
+    public static ImportFormat parse(String format) {
+        try {
+            return valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid import format: " + format);
+        }
+    }
+
+    public static ImportFormat fromFileName(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".jsonl") || lower.endsWith(".ndjson") ? JSONL : CSV;
+    }
+}
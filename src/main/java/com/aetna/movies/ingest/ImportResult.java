@@ -0,0 +1,4 @@
+package com.aetna.movies.ingest;
+
+public record ImportResult(long imported, long rejected, long durationMillis) {
+}
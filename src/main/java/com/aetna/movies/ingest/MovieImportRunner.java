@@ -0,0 +1,77 @@
+package com.aetna.movies.ingest;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import com.aetna.movies.entity.MovieEntity;
+import com.aetna.movies.repository.ShardedMovieStore;
+
+import lombok.extern.slf4j.Slf4j;
+
+// CLI mode: java -jar movies.jar --import=movies.csv [--format=csv|jsonl] [--shard=i/n]
+// With --shard only the rows hashed to shard i of n are written, to fill one file of a sharded catalog
+@Component
+@Slf4j
+public class MovieImportRunner implements ApplicationRunner {
+
+    public static final String IMPORT_OPTION = "import";
+    public static final String SHARD_OPTION = "shard";
+
+    private final MovieImporter movieImporter;
+
+    public MovieImportRunner(MovieImporter movieImporter) {
+        this.movieImporter = movieImporter;
+    }
+
+    public static boolean isImport(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith("--" + IMPORT_OPTION + "=")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!args.containsOption(IMPORT_OPTION)) {
+            return;
+        }
+        Path file = Path.of(args.getOptionValues(IMPORT_OPTION).get(0));
+        List<String> formats = args.getOptionValues("format");
+        ImportFormat format = formats != null && !formats.isEmpty()
+                ? ImportFormat.parse(formats.get(0))
+                : ImportFormat.fromFileName(file.getFileName().toString());
+        List<String> shards = args.getOptionValues(SHARD_OPTION);
+        Predicate<MovieEntity> filter = shards != null && !shards.isEmpty()
+                ? shardFilter(shards.get(0))
+                : movie -> true;
+        log.info("Importing {} as {}", file, format);
+        try (InputStream input = Files.newInputStream(file)) {
+            ImportResult result = movieImporter.importMovies(input, format, filter);
+            log.info("Import finished: {} imported, {} rejected in {} ms", result.imported(), result.rejected(),
+                    result.durationMillis());
+        }
+    }
+
+    static Predicate<MovieEntity> shardFilter(String shard) {
+        String[] parts = shard.split("/");
+        try {
+            int index = Integer.parseInt(parts[0].trim());
+            int count = parts.length == 2 ? Integer.parseInt(parts[1].trim()) : 0;
+            if (count > 0 && index >= 0 && index < count) {
+                return movie -> ShardedMovieStore.shardOf(movie.getMovieId(), count) == index;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid shard: " + shard + ", expected i/n with 0 <= i < n");
+    }
+}
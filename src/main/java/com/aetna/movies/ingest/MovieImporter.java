@@ -0,0 +1,228 @@
+package com.aetna.movies.ingest;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Predicate;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.aetna.movies.catalog.CatalogService;
+import com.aetna.movies.entity.MovieEntity;
+import com.aetna.movies.exception.MoviesServiceException;
+import com.aetna.movies.repository.ChangeVersionGenerator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+// Bulk upsert into the movies table. A parser thread turns the input into batches while the calling
+// thread writes them with JDBC batches, committing every commit-size rows instead of once per row.
+@Service
+@Slf4j
+public class MovieImporter {
+
+    private static final String UPSERT = "INSERT OR REPLACE INTO movies (movieId, imdbId, title, overview, "
+            + "productionCompanies, releaseDate, budget, revenue, runtime, language, genres, status, changeVersion) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final List<MovieEntity> END_OF_INPUT = new ArrayList<>();
+    private static final int LOGGED_REJECTIONS = 10;
+
+    private final DataSource dataSource;
+    private final ChangeVersionGenerator changeVersionGenerator;
+    private final CatalogService catalogService;
+    private final int batchSize;
+    private final int commitSize;
+    private final int queueCapacity;
+    private final int shards;
+    private final Counter importedCounter;
+    private final Counter rejectedCounter;
+
+    public MovieImporter(DataSource dataSource, ChangeVersionGenerator changeVersionGenerator,
+                         CatalogService catalogService, MeterRegistry meterRegistry,
+                         @Value("${movies.ingest.batch-size:1000}") int batchSize,
+                         @Value("${movies.ingest.commit-size:100000}") int commitSize,
+                         @Value("${movies.ingest.queue-capacity:16}") int queueCapacity,
+                         @Value("${movies.storage.shards:1}") int shards) {
+        this.dataSource = dataSource;
+        this.changeVersionGenerator = changeVersionGenerator;
+        this.catalogService = catalogService;
+        this.batchSize = batchSize;
+        this.commitSize = commitSize;
+        this.queueCapacity = queueCapacity;
+        this.shards = shards;
+        this.importedCounter = Counter.builder("movies.ingest.rows")
+                .description("Rows processed by the bulk import")
+                .tag("outcome", "imported")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("movies.ingest.rows")
+                .description("Rows processed by the bulk import")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+    }
+
+    public ImportResult importMovies(InputStream input, ImportFormat format) {
+        return importMovies(input, format, movie -> true);
+    }
+
+    // Rows failing the filter are skipped silently, e.g. those belonging to another shard.
+    // Writes go to the primary database only, so a sharded catalog is filled file by file with --shard instead
+    public ImportResult importMovies(InputStream input, ImportFormat format, Predicate<MovieEntity> filter) {
+        if (shards > 1) {
+            throw new MoviesServiceException("Import writes to the primary database and is not available with "
+                    + "movies.storage.shards > 1");
+        }
+        long start = System.nanoTime();
+        BlockingQueue<List<MovieEntity>> batches = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicLong rejected = new AtomicLong();
+        AtomicReference<Exception> parseFailure = new AtomicReference<>();
+
+        Thread parser = new Thread(() -> parse(input, format, filter, batches, rejected, parseFailure), "movies-import-parser");
+        parser.setDaemon(true);
+        parser.start();
+        Lock catalogWrites = catalogService.writeLock();
+        try {
+            long imported;
+            catalogWrites.lockInterruptibly();
+            try {
+                imported = write(batches, parseFailure);
+            } finally {
+                catalogWrites.unlock();
+            }
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.info("Imported {} movies ({} rejected) in {} ms", imported, rejected.get(), durationMillis);
+            return new ImportResult(imported, rejected.get(), durationMillis);
+        } catch (SQLException e) {
+            throw new MoviesServiceException("Exception occurred while writing the import", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MoviesServiceException("Import interrupted", e);
+        } finally {
+            parser.interrupt();
+        }
+    }
+
+    private void parse(InputStream input, ImportFormat format, Predicate<MovieEntity> filter,
+                       BlockingQueue<List<MovieEntity>> batches,
+                       AtomicLong rejected, AtomicReference<Exception> parseFailure) {
+        try (MovieRecordReader reader = new MovieRecordReader(input, format)) {
+            List<MovieEntity> batch = new ArrayList<>(batchSize);
+            while (true) {
+                MovieEntity movie;
+                try {
+                    movie = reader.next();
+                } catch (IllegalArgumentException e) {
+                    rejectedCounter.increment();
+                    if (rejected.incrementAndGet() <= LOGGED_REJECTIONS) {
+                        log.warn("Rejected import record {}: {}", reader.getRecordNumber(), e.getMessage());
+                    }
+                    continue;
+                }
+                if (movie == null) {
+                    break;
+                }
+                if (!filter.test(movie)) {
+                    continue;
+                }
+                batch.add(movie);
+                if (batch.size() == batchSize) {
+                    batches.put(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                batches.put(batch);
+            }
+        } catch (InterruptedException e) {
+            // The writer gave up, nobody is waiting for more batches
+            return;
+        } catch (Exception e) {
+            parseFailure.set(e);
+        }
+        try {
+            batches.put(END_OF_INPUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // A parse failure rolls back the rows since the last commit; chunks committed before it are kept
+    private long write(BlockingQueue<List<MovieEntity>> batches, AtomicReference<Exception> parseFailure)
+            throws SQLException, InterruptedException {
+        long committed = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT)) {
+                long pending = 0;
+                // Applied to the catalog snapshot once committed, so it never shows rows that may be rolled back
+                List<MovieEntity> uncommitted = new ArrayList<>();
+                List<MovieEntity> batch;
+                while ((batch = batches.take()) != END_OF_INPUT) {
+                    long changeVersion = changeVersionGenerator.reserve(batch.size());
+                    // Before the commit, so the id filter never answers 404 for a row that is visible
+                    catalogService.moviesWritten(batch.stream().mapToInt(MovieEntity::getMovieId).toArray());
+                    for (MovieEntity movie : batch) {
+                        movie.setChangeVersion(changeVersion++);
+                        bind(statement, movie);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    uncommitted.addAll(batch);
+                    pending += batch.size();
+                    if (pending >= commitSize) {
+                        connection.commit();
+                        catalogService.moviesUpserted(uncommitted);
+                        uncommitted = new ArrayList<>();
+                        committed += pending;
+                        importedCounter.increment(pending);
+                        pending = 0;
+                        log.info("Import progress: {} movies committed", committed);
+                    }
+                }
+                if (parseFailure.get() != null) {
+                    throw new MoviesServiceException("Exception occurred while reading the import, " + committed
+                            + " movies committed before it are kept", parseFailure.get());
+                }
+                connection.commit();
+                catalogService.moviesUpserted(uncommitted);
+                committed += pending;
+                importedCounter.increment(pending);
+            } catch (SQLException | InterruptedException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        return committed;
+    }
+
+    private static void bind(PreparedStatement statement, MovieEntity movie) throws SQLException {
+        statement.setInt(1, movie.getMovieId());
+        statement.setString(2, movie.getImdbId());
+        statement.setString(3, movie.getTitle());
+        statement.setString(4, movie.getOverview());
+        statement.setString(5, movie.getProductionCompanies());
+        statement.setString(6, movie.getReleaseDate());
+        statement.setLong(7, movie.getBudget());
+        statement.setDouble(8, movie.getRevenue());
+        statement.setDouble(9, movie.getRuntime());
+        statement.setString(10, movie.getLanguage());
+        statement.setString(11, movie.getGenres());
+        statement.setString(12, movie.getStatus());
+        statement.setLong(13, movie.getChangeVersion());
+    }
+}
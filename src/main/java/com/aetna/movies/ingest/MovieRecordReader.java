@@ -0,0 +1,213 @@
+package com.aetna.movies.ingest;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.aetna.movies.entity.MovieEntity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Streams movies out of CSV (header row with the movies column names) or JSON Lines input, one
+// record at a time. A malformed record throws IllegalArgumentException and the next call moves on.
+public class MovieRecordReader implements Closeable {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final BufferedReader reader;
+    private final ImportFormat format;
+    private Map<String, Integer> csvColumns;
+    private long recordNumber;
+
+    public MovieRecordReader(InputStream input, ImportFormat format) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16);
+        this.format = format;
+    }
+
+    // Returns null at the end of the input
+    public MovieEntity next() throws IOException {
+        return format == ImportFormat.CSV ? nextCsv() : nextJsonLine();
+    }
+
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    private MovieEntity nextCsv() throws IOException {
+        if (csvColumns == null) {
+            List<String> header = readCsvRecord();
+            if (header == null) {
+                return null;
+            }
+            csvColumns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                csvColumns.put(header.get(i).trim(), i);
+            }
+        }
+        List<String> values = readCsvRecord();
+        if (values == null) {
+            return null;
+        }
+        recordNumber++;
+        return toEntity(column -> {
+            Integer index = csvColumns.get(column);
+            return index != null && index < values.size() ? values.get(index) : null;
+        }, genreTokens(csvColumns.containsKey("genres") ? values.get(csvColumns.get("genres")) : null));
+    }
+
+    private MovieEntity nextJsonLine() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+        recordNumber++;
+        JsonNode node;
+        try {
+            node = OBJECT_MAPPER.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+        JsonNode genres = node.path("genres");
+        return toEntity(field -> {
+            JsonNode value = node.get(field);
+            return value == null || value.isNull() ? null : value.asText();
+        }, genres.isArray() ? genreTokens(genres) : genreTokens(genres.isTextual() ? genres.asText() : null));
+    }
+
+    // RFC 4180: quoted fields may hold commas, line breaks and doubled quotes
+    private List<String> readCsvRecord() throws IOException {
+        int c = reader.read();
+        while (c == '\r' || c == '\n') {
+            c = reader.read();
+        }
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                break;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static List<String> genreTokens(String genres) {
+        if (genres == null || genres.isBlank()) {
+            return List.of();
+        }
+        if (genres.trim().startsWith("[")) {
+            try {
+                return genreTokens(OBJECT_MAPPER.readTree(genres));
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Malformed genres: " + genres);
+            }
+        }
+        return Arrays.asList(genres.split("[|,]"));
+    }
+
+    private static List<String> genreTokens(JsonNode genres) {
+        List<String> tokens = new ArrayList<>(genres.size());
+        for (JsonNode genre : genres) {
+            if (genre.isObject()) {
+                tokens.add(genre.hasNonNull("name") ? genre.get("name").asText() : genre.path("id").asText());
+            } else {
+                tokens.add(genre.asText());
+            }
+        }
+        return tokens;
+    }
+
+    private static MovieEntity toEntity(Function<String, String> field, List<String> genres) {
+        MovieEntity movie = new MovieEntity();
+        movie.setMovieId((int) number(field, "movieId", true));
+        movie.setImdbId(required(field, "imdbId"));
+        movie.setTitle(required(field, "title"));
+        movie.setOverview(field.apply("overview"));
+        movie.setProductionCompanies(field.apply("productionCompanies"));
+        movie.setReleaseDate(field.apply("releaseDate"));
+        movie.setBudget(number(field, "budget", false));
+        movie.setRevenue(decimal(field, "revenue"));
+        movie.setRuntime(decimal(field, "runtime"));
+        movie.setLanguage(field.apply("language"));
+        movie.setGenres(GenreNormalizer.normalize(genres));
+        movie.setStatus(field.apply("status"));
+        if (movie.getMovieId() <= 0) {
+            throw new IllegalArgumentException("movieId must be a positive integer");
+        }
+        return movie;
+    }
+
+    private static String required(Function<String, String> field, String name) {
+        String value = field.apply(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing required field: " + name);
+        }
+        return value;
+    }
+
+    private static long number(Function<String, String> field, String name, boolean required) {
+        String value = required ? required(field, name) : field.apply(name);
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return (long) decimal(field, name);
+        }
+    }
+
+    private static double decimal(Function<String, String> field, String name) {
+        String value = field.apply(name);
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + name + ": " + value);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,49 @@
+package com.aetna.movies.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+// Lets through roughly one in sampleRate INFO events of the configured logger (and its children).
+// Runs before the event is created, so dropped events cost neither formatting nor appender work.
+// isInfoEnabled() checks (no format) are not sampled, otherwise guarded calls would be sampled twice.
+public class SamplingTurboFilter extends TurboFilter {
+
+    private String loggerName;
+    private int sampleRate = 1;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (sampleRate <= 1 || level != Level.INFO || format == null || t != null || !matches(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        return ThreadLocalRandom.current().nextInt(sampleRate) == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean matches(String name) {
+        return name.startsWith(loggerName)
+                && (name.length() == loggerName.length() || name.charAt(loggerName.length()) == '.');
+    }
+
+    @Override
+    public void start() {
+        if (loggerName == null || loggerName.isEmpty()) {
+            addError("No loggerName set for SamplingTurboFilter " + getName());
+            return;
+        }
+        super.start();
+    }
+
+    public void setLoggerName(String loggerName) {
+        this.loggerName = loggerName;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+}
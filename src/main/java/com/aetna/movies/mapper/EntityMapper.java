@@ -13,6 +13,9 @@ import java.util.stream.Collectors;
 @Component
 public class EntityMapper {
 
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<List<JsonNode>> GENRES_TYPE = new TypeReference<>() {};
+
     public EntityMapper() {}
 
     public static Movie toDto(MovieEntity movieEntity) {
@@ -26,17 +29,18 @@ public class EntityMapper {
                             .revenue(movieEntity.getRevenue())
                             .runtime(movieEntity.getRuntime())
                             .language(movieEntity.getLanguage())
-                            .genres(parseJson(movieEntity.getGenres()))
+                            .genres(parseGenres(movieEntity.getGenres()))
                             .build();
         return movie;
     }
 
-    private static List<String> parseJson(String jsonString) {
-
-        ObjectMapper objectMapper = new ObjectMapper();
+    public static List<String> parseGenres(String jsonString) {
+        if (jsonString == null || jsonString.isBlank()) {
+            return List.of();
+        }
         try {
             // Parse JSON string into a list of JsonNode objects
-            List<JsonNode> genres = objectMapper.readValue(jsonString, new TypeReference<List<JsonNode>>() {});
+            List<JsonNode> genres = OBJECT_MAPPER.readValue(jsonString, GENRES_TYPE);
             return genres.stream()
                     .map(genre -> genre.get("name").asText())
                     .collect(Collectors.toList());
@@ -0,0 +1,32 @@
+package com.aetna.movies.metrics;
+
+import org.slf4j.MDC;
+
+import io.prometheus.metrics.tracer.common.SpanContext;
+
+// Exposes the trace/span ids the OpenTelemetry logback instrumentation puts in the MDC
+// so histogram buckets get exemplars pointing at the trace that produced them.
+public class MdcSpanContext implements SpanContext {
+
+    private static final String TRACE_ID_MDC_KEY = "trace_id";
+    private static final String SPAN_ID_MDC_KEY = "span_id";
+
+    @Override
+    public String getCurrentTraceId() {
+        return MDC.get(TRACE_ID_MDC_KEY);
+    }
+
+    @Override
+    public String getCurrentSpanId() {
+        return MDC.get(SPAN_ID_MDC_KEY);
+    }
+
+    @Override
+    public boolean isCurrentSpanSampled() {
+        return MDC.get(TRACE_ID_MDC_KEY) != null;
+    }
+
+    @Override
+    public void markCurrentSpanAsExemplar() {
+    }
+}
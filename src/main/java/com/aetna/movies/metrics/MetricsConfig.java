@@ -0,0 +1,37 @@
+package com.aetna.movies.metrics;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.function.SingletonSupplier;
+
+import io.prometheus.metrics.tracer.common.SpanContext;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public SpanContext mdcSpanContext() {
+        return new MdcSpanContext();
+    }
+
+    // Static and lazily resolved so the meter registry is not created ahead of its customizers
+    @Bean
+    public static BeanPostProcessor statementTimingPostProcessor(ObjectProvider<StageMetrics> stageMetrics,
+                                                                 ObjectProvider<SlowQueryLog> slowQueryLog) {
+        SingletonSupplier<StageMetrics> metrics = SingletonSupplier.of(stageMetrics::getObject);
+        SingletonSupplier<SlowQueryLog> slowQueries = SingletonSupplier.of(slowQueryLog::getObject);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof StatementTimingDataSource)) {
+                    return new StatementTimingDataSource(dataSource, metrics, slowQueries);
+                }
+                return bean;
+            }
+        };
+    }
+}
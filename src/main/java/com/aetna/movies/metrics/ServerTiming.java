@@ -0,0 +1,75 @@
+package com.aetna.movies.metrics;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Stage durations of one request, rendered as a Server-Timing header. Stages may be recorded from
+// several threads (scatter-gather, async), so each one is a slot of atomic counters; a record is two adds.
+public final class ServerTiming {
+
+    public static final String HEADER = "Server-Timing";
+
+    private static final String[] STAGES = { StageMetrics.QUERY, StageMetrics.COUNT, StageMetrics.MAPPING,
+        StageMetrics.RATINGS, StageMetrics.MERGE, StageMetrics.SERIALIZATION };
+    private static final String APP = "app";
+
+    private final long startNanos = System.nanoTime();
+    private final AtomicLongArray nanos = new AtomicLongArray(STAGES.length);
+    private final AtomicIntegerArray calls = new AtomicIntegerArray(STAGES.length);
+    private final AtomicIntegerArray failures = new AtomicIntegerArray(STAGES.length);
+
+    public void record(String stage, long stageNanos, boolean success) {
+        for (int i = 0; i < STAGES.length; i++) {
+            if (STAGES[i].equals(stage)) {
+                nanos.addAndGet(i, stageNanos);
+                calls.incrementAndGet(i);
+                if (!success) {
+                    failures.incrementAndGet(i);
+                }
+                return;
+            }
+        }
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    // e.g. query;dur=3.1, mapping;dur=0.2, ratings;dur=41.7;desc="error", app;dur=46.0
+    public String header() {
+        StringBuilder header = new StringBuilder(128);
+        for (int i = 0; i < STAGES.length; i++) {
+            appendStage(header, i);
+        }
+        append(header, APP, elapsedNanos(), null);
+        return header.toString();
+    }
+
+    // Only the serialization entry, which is known once the body has been written
+    public String serializationHeader() {
+        StringBuilder header = new StringBuilder(32);
+        appendStage(header, STAGES.length - 1);
+        return header.toString();
+    }
+
+    private void appendStage(StringBuilder header, int stage) {
+        int stageCalls = calls.get(stage);
+        if (stageCalls == 0) {
+            return;
+        }
+        String description = failures.get(stage) > 0 ? "error" : stageCalls > 1 ? stageCalls + " calls" : null;
+        append(header, STAGES[stage], nanos.get(stage), description);
+    }
+
+    private static void append(StringBuilder header, String name, long durationNanos, String description) {
+        if (!header.isEmpty()) {
+            header.append(", ");
+        }
+        // Milliseconds with one decimal, without going through String.format
+        long tenths = (durationNanos + 50_000) / 100_000;
+        header.append(name).append(";dur=").append(tenths / 10).append('.').append(tenths % 10);
+        if (description != null) {
+            header.append(";desc=\"").append(description).append('"');
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.aetna.movies.metrics;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// Adds the Server-Timing header to responses of requests timed by ServerTimingInterceptor, error
+// responses included, right before the body is serialized.
+@ControllerAdvice
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            HttpServletRequest httpRequest = servletRequest.getServletRequest();
+            if (httpRequest.getAttribute(ServerTimingInterceptor.TIMING_ATTRIBUTE) instanceof ServerTiming timing) {
+                response.getHeaders().set(ServerTiming.HEADER, timing.header());
+                httpRequest.setAttribute(ServerTimingInterceptor.SERIALIZATION_STARTED_AT_ATTRIBUTE, System.nanoTime());
+            }
+        }
+        return body;
+    }
+}
@@ -0,0 +1,63 @@
+package com.aetna.movies.metrics;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import com.aetna.movies.config.RequestContextHolder;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Starts a ServerTiming for the request and installs it for StageMetrics. ServerTimingAdvice writes the
+// header just before the body; serialization finishes after that, so it is only sent as a trailer to
+// clients asking for one (TE: trailers) and is always recorded in the movies.stage timer.
+@Component
+public class ServerTimingInterceptor implements AsyncHandlerInterceptor {
+
+    static final String TIMING_ATTRIBUTE = ServerTiming.class.getName();
+    static final String SERIALIZATION_STARTED_AT_ATTRIBUTE = ServerTiming.class.getName() + ".serializationStartedAt";
+
+    private final StageMetrics stageMetrics;
+    private final boolean enabled;
+
+    public ServerTimingInterceptor(StageMetrics stageMetrics,
+                                   @Value("${movies.server-timing.enabled:true}") boolean enabled) {
+        this.stageMetrics = stageMetrics;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!enabled) {
+            return true;
+        }
+        // An async dispatch picks up the timing started by the first dispatch
+        ServerTiming serverTiming = request.getAttribute(TIMING_ATTRIBUTE) instanceof ServerTiming existing
+                ? existing
+                : start(request, response);
+        RequestContextHolder.setServerTiming(serverTiming);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(SERIALIZATION_STARTED_AT_ATTRIBUTE) instanceof Long startedAt) {
+            request.removeAttribute(SERIALIZATION_STARTED_AT_ATTRIBUTE);
+            stageMetrics.record(StageMetrics.SERIALIZATION, System.nanoTime() - startedAt, ex == null);
+        }
+    }
+
+    private static ServerTiming start(HttpServletRequest request, HttpServletResponse response) {
+        ServerTiming serverTiming = new ServerTiming();
+        request.setAttribute(TIMING_ATTRIBUTE, serverTiming);
+        String te = request.getHeader("TE");
+        if (te != null && te.contains("trailers") && !"HTTP/1.0".equals(request.getProtocol())) {
+            response.setHeader("Trailer", ServerTiming.HEADER);
+            response.setTrailerFields(() -> Map.of(ServerTiming.HEADER, serverTiming.serializationHeader()));
+        }
+        return serverTiming;
+    }
+}
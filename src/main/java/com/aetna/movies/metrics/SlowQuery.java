@@ -0,0 +1,10 @@
+package com.aetna.movies.metrics;
+
+import java.time.Instant;
+import java.util.List;
+
+// One statement that took longer than movies.slow-query.threshold-millis. plan holds the
+// EXPLAIN QUERY PLAN detail lines; fullScan is set when any of them scans a table without an index.
+public record SlowQuery(Instant at, String sql, List<String> parameters, double durationMillis, String stage,
+                        String endpoint, List<String> plan, boolean fullScan) {
+}
@@ -0,0 +1,33 @@
+package com.aetna.movies.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+// GET /actuator/slowqueries lists recent slow statements with their plans; DELETE clears the log
+@Component
+@Endpoint(id = "slowqueries")
+@RequiredArgsConstructor
+public class SlowQueryEndpoint {
+
+    private final SlowQueryLog slowQueryLog;
+
+    @ReadOperation
+    public Map<String, Object> slowQueries() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("thresholdMillis", slowQueryLog.getThresholdMillis());
+        details.put("queries", slowQueryLog.entries());
+        return details;
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowQueryLog.clear();
+    }
+}
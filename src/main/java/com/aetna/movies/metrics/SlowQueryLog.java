@@ -0,0 +1,130 @@
+package com.aetna.movies.metrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.aetna.movies.config.RequestContextHolder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+// Bounded ring buffer of the most recent slow statements, fed by StatementTimingDataSource.
+// The query plan is captured once per distinct SQL text on the connection that ran it, so a
+// statement that stays slow costs one EXPLAIN rather than one per execution.
+@Component
+@Slf4j
+public class SlowQueryLog {
+
+    private static final int MAX_PARAMETER_LENGTH = 200;
+    private static final int MAX_CACHED_PLANS = 1024;
+
+    private final long thresholdNanos;
+    private final SlowQuery[] entries;
+    private final Map<String, List<String>> plans = new ConcurrentHashMap<>();
+    private final Counter scanCounter;
+    private final Counter indexedCounter;
+    private long recorded;
+
+    public SlowQueryLog(MeterRegistry meterRegistry,
+                        @Value("${movies.slow-query.threshold-millis:100}") long thresholdMillis,
+                        @Value("${movies.slow-query.capacity:100}") int capacity) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.entries = new SlowQuery[capacity];
+        this.scanCounter = Counter.builder("movies.db.slow.queries")
+                .description("Statements slower than the slow query threshold")
+                .tag("full_scan", "true")
+                .register(meterRegistry);
+        this.indexedCounter = Counter.builder("movies.db.slow.queries")
+                .description("Statements slower than the slow query threshold")
+                .tag("full_scan", "false")
+                .register(meterRegistry);
+    }
+
+    public boolean isSlow(long nanos) {
+        return nanos >= thresholdNanos;
+    }
+
+    public long getThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    // Never throws: a failing EXPLAIN must not fail the statement being logged
+    public void record(Connection connection, String sql, Collection<Object> parameters, String stage, long nanos) {
+        List<String> plan = plans.get(sql);
+        if (plan == null) {
+            plan = explain(connection, sql, parameters);
+            if (plans.size() >= MAX_CACHED_PLANS) {
+                plans.clear();
+            }
+            plans.put(sql, plan);
+            log.warn("Slow query ({} ms): {} plan: {}", TimeUnit.NANOSECONDS.toMillis(nanos), sql, plan);
+        }
+        List<String> values = new ArrayList<>(parameters.size());
+        for (Object parameter : parameters) {
+            String value = String.valueOf(parameter);
+            values.add(value.length() > MAX_PARAMETER_LENGTH ? value.substring(0, MAX_PARAMETER_LENGTH) + "..." : value);
+        }
+        boolean fullScan = plan.stream().anyMatch(SlowQueryLog::isFullScan);
+        add(new SlowQuery(Instant.now(), sql, values, nanos / 1_000_000.0, stage, RequestContextHolder.getEndpoint(),
+                plan, fullScan));
+        (fullScan ? scanCounter : indexedCounter).increment();
+    }
+
+    // Newest first
+    public synchronized List<SlowQuery> entries() {
+        List<SlowQuery> newestFirst = new ArrayList<>(entries.length);
+        for (long i = recorded - 1; i >= 0 && i >= recorded - entries.length; i--) {
+            newestFirst.add(entries[(int) (i % entries.length)]);
+        }
+        return newestFirst;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(entries, null);
+        recorded = 0;
+        plans.clear();
+    }
+
+    synchronized void add(SlowQuery entry) {
+        entries[(int) (recorded % entries.length)] = entry;
+        recorded++;
+    }
+
+    private static List<String> explain(Connection connection, String sql, Collection<Object> parameters) {
+        List<String> plan = new ArrayList<>();
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            int index = 1;
+            for (Object parameter : parameters) {
+                explain.setObject(index++, parameter);
+            }
+            try (ResultSet rows = explain.executeQuery()) {
+                while (rows.next()) {
+                    plan.add(rows.getString("detail"));
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.debug("EXPLAIN QUERY PLAN failed for {}: {}", sql, e.getMessage());
+            plan.add("unavailable: " + e.getMessage());
+        }
+        return plan;
+    }
+
+    // "SCAN movies" (or "SCAN TABLE movies" before SQLite 3.36) reads every row; SEARCH uses an index
+    static boolean isFullScan(String detail) {
+        return detail.startsWith("SCAN ") && !detail.contains(" USING ");
+    }
+}
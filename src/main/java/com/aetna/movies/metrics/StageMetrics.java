@@ -0,0 +1,82 @@
+package com.aetna.movies.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.aetna.movies.config.RequestContextHolder;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@Component
+public class StageMetrics {
+
+    public static final String QUERY = "query";
+    public static final String COUNT = "count";
+    public static final String MAPPING = "mapping";
+    public static final String RATINGS = "ratings";
+    public static final String MERGE = "merge";
+    public static final String SERIALIZATION = "serialization";
+
+    // Outcome of a ratings stage served from the local ratings store rather than the ratings service
+    public static final String OUTCOME_STORE = "store";
+
+    private static final String TIMER_NAME = "movies.stage";
+    private static final String NO_ENDPOINT = "none";
+    private static final String SUCCESS = "success";
+    private static final String ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public StageMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T record(String stage, Supplier<T> work) {
+        return record(stage, SUCCESS, work);
+    }
+
+    // Tags a successful run with the given outcome, so different ways of serving one stage can be told apart
+    public <T> T record(String stage, String outcome, Supplier<T> work) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = work.get();
+            success = true;
+            return result;
+        } finally {
+            record(stage, System.nanoTime() - start, success, success ? outcome : ERROR);
+        }
+    }
+
+    public void record(String stage, long nanos, boolean success) {
+        record(stage, nanos, success, success ? SUCCESS : ERROR);
+    }
+
+    private void record(String stage, long nanos, boolean success, String outcome) {
+        ServerTiming serverTiming = RequestContextHolder.getServerTiming();
+        if (serverTiming != null) {
+            serverTiming.record(stage, nanos, success);
+        }
+        String endpoint = RequestContextHolder.getEndpoint();
+        timer(stage, endpoint != null ? endpoint : NO_ENDPOINT, outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String stage, String endpoint, String outcome) {
+        return timers.computeIfAbsent(stage + '|' + endpoint + '|' + outcome, key -> Timer.builder(TIMER_NAME)
+                .description("Time spent in a single stage of request processing")
+                .tag("stage", stage)
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,123 @@
+package com.aetna.movies.metrics;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+// Times every prepared statement so the SQLite part of a repository call can be
+// split into the row query and the count query Spring Data issues for a Page.
+// With a SlowQueryLog, bind parameters are kept so slow statements can be logged and explained.
+public class StatementTimingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final Supplier<StageMetrics> stageMetrics;
+    private final Supplier<SlowQueryLog> slowQueryLog;
+
+    public StatementTimingDataSource(DataSource targetDataSource, Supplier<StageMetrics> stageMetrics) {
+        this(targetDataSource, stageMetrics, () -> null);
+    }
+
+    public StatementTimingDataSource(DataSource targetDataSource, Supplier<StageMetrics> stageMetrics,
+                                     Supplier<SlowQueryLog> slowQueryLog) {
+        super(targetDataSource);
+        this.stageMetrics = stageMetrics;
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timed(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timed(super.getConnection(username, password));
+    }
+
+    private Connection timed(Connection connection) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof PreparedStatement statement && "prepareStatement".equals(method.getName())) {
+                return timed(statement, (String) args[0]);
+            }
+            return result;
+        });
+    }
+
+    private PreparedStatement timed(PreparedStatement statement, String sql) {
+        String stage = isCountQuery(sql) ? StageMetrics.COUNT : StageMetrics.QUERY;
+        SlowQueryLog slowQueries = slowQueryLog.get();
+        Map<Integer, Object> parameters = slowQueries != null ? new TreeMap<>() : null;
+        return proxy(PreparedStatement.class, statement, (proxy, method, args) -> {
+            if (args != null || !EXECUTE_METHODS.contains(method.getName())) {
+                if (parameters != null) {
+                    captureParameter(parameters, method.getName(), args);
+                }
+                return invoke(statement, method, args);
+            }
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                Object result = invoke(statement, method, null);
+                success = true;
+                return result;
+            } finally {
+                long nanos = System.nanoTime() - start;
+                stageMetrics.get().record(stage, nanos, success);
+                if (slowQueries != null && slowQueries.isSlow(nanos) && !method.getName().endsWith("Batch")) {
+                    slowQueries.record(statement.getConnection(), sql, parameters.values(), stage, nanos);
+                }
+            }
+        });
+    }
+
+    private static void captureParameter(Map<Integer, Object> parameters, String method, Object[] args) {
+        if ("clearParameters".equals(method)) {
+            parameters.clear();
+        } else if (method.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+            parameters.put(index, "setNull".equals(method) ? null : args[1]);
+        }
+    }
+
+    static boolean isCountQuery(String sql) {
+        return sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select count(");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, StatementHandler handler) {
+        return (T) Proxy.newProxyInstance(StatementTimingDataSource.class.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "Timed[" + target + "]";
+                    default -> handler.handle(proxy, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    @FunctionalInterface
+    private interface StatementHandler {
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,18 @@
+package com.aetna.movies.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.aetna.movies.EntityMapping")
+@Label("Entity Mapping")
+@Category({ "Movies" })
+@Description("Batch of MovieEntity rows mapped to Movie DTOs")
+@StackTrace(false)
+public class EntityMappingEvent extends jdk.jfr.Event {
+
+    @Label("Movies")
+    public int movies;
+}
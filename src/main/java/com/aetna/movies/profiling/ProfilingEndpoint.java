@@ -0,0 +1,140 @@
+package com.aetna.movies.profiling;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+
+// On-demand Java Flight Recorder capture, one recording at a time. POST /actuator/profiling starts it,
+// bounded by duration and size; GET shows its state; DELETE stops it and downloads the .jfr file.
+@Component
+@Endpoint(id = "profiling")
+@Slf4j
+public class ProfilingEndpoint {
+
+    private static final String OCTET_STREAM = "application/octet-stream";
+    private static final String DEFAULT_SETTINGS = "profile";
+
+    private final Duration defaultDuration;
+    private final Duration maxDuration;
+    private final long maxSizeBytes;
+
+    private Recording recording;
+    private Path destination;
+
+    public ProfilingEndpoint(@Value("${movies.profiling.default-duration-seconds:60}") long defaultDurationSeconds,
+                             @Value("${movies.profiling.max-duration-seconds:600}") long maxDurationSeconds,
+                             @Value("${movies.profiling.max-size-mb:100}") long maxSizeMb) {
+        this.defaultDuration = Duration.ofSeconds(defaultDurationSeconds);
+        this.maxDuration = Duration.ofSeconds(maxDurationSeconds);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> recording() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        if (recording == null) {
+            details.put("state", "NONE");
+            return details;
+        }
+        details.put("name", recording.getName());
+        details.put("state", recording.getState());
+        details.put("startedAt", recording.getStartTime());
+        details.put("duration", recording.getDuration());
+        details.put("stoppedAt", recording.getStopTime());
+        details.put("sizeBytes", recording.getSize());
+        return details;
+    }
+
+    // settings names a JFR configuration: "default" (about 1% overhead) or "profile" (more detail, the default)
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> start(@Nullable Long durationSeconds,
+                                                                       @Nullable String settings) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return badRequest("A recording is already running");
+        }
+        Duration duration = durationSeconds != null ? Duration.ofSeconds(durationSeconds) : defaultDuration;
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(maxDuration) > 0) {
+            return badRequest("durationSeconds must be between 1 and " + maxDuration.toSeconds());
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings != null ? settings : DEFAULT_SETTINGS);
+        } catch (IOException | ParseException e) {
+            return badRequest("Unknown JFR settings: " + settings);
+        }
+
+        discard();
+        try {
+            destination = Files.createTempFile("movies-", ".jfr");
+            recording = new Recording(configuration);
+            recording.setName("movies-" + Instant.now());
+            recording.setToDisk(true);
+            recording.setDuration(duration);
+            recording.setMaxSize(maxSizeBytes);
+            recording.setDestination(destination);
+            recording.start();
+        } catch (IOException e) {
+            discard();
+            throw new UncheckedIOException("Failed to start JFR recording", e);
+        }
+        log.info("Started JFR recording {} for {} with {} settings", recording.getName(), duration,
+                configuration.getName());
+        return new WebEndpointResponse<>(recording(), WebEndpointResponse.STATUS_OK);
+    }
+
+    // A recording that reached its duration has already been written; stopping it again is a no-op
+    @DeleteOperation(produces = OCTET_STREAM)
+    public synchronized WebEndpointResponse<Resource> stop() {
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        log.info("Stopped JFR recording {} ({} bytes)", recording.getName(), destination.toFile().length());
+        return new WebEndpointResponse<>(new FileSystemResource(destination), WebEndpointResponse.STATUS_OK);
+    }
+
+    @PreDestroy
+    public synchronized void discard() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        if (destination != null) {
+            try {
+                Files.deleteIfExists(destination);
+            } catch (IOException e) {
+                log.warn("Failed to delete JFR recording {}: {}", destination, e.getMessage());
+            }
+            destination = null;
+        }
+    }
+
+    private static WebEndpointResponse<Map<String, Object>> badRequest(String message) {
+        return new WebEndpointResponse<>(Map.of("error", message), WebEndpointResponse.STATUS_BAD_REQUEST);
+    }
+}
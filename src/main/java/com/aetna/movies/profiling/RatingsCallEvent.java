@@ -0,0 +1,31 @@
+package com.aetna.movies.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.aetna.movies.RatingsCall")
+@Label("Ratings Call")
+@Category({ "Movies", "HTTP" })
+@Description("Batch request to the ratings service")
+@StackTrace(false)
+public class RatingsCallEvent extends jdk.jfr.Event {
+
+    @Label("Movie IDs")
+    public int movieIds;
+
+    @Label("Request Size")
+    @DataAmount
+    public long requestBytes;
+
+    @Label("Response Size")
+    @DataAmount
+    public long responseBytes;
+
+    @Label("Status")
+    @Description("HTTP status, or 0 when the call failed")
+    public int status;
+}
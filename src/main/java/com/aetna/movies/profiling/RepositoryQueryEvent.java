@@ -0,0 +1,21 @@
+package com.aetna.movies.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.aetna.movies.RepositoryQuery")
+@Label("Repository Query")
+@Category({ "Movies", "Database" })
+@Description("Read through the movie store, including its count query")
+@StackTrace(false)
+public class RepositoryQueryEvent extends jdk.jfr.Event {
+
+    @Label("Query")
+    public String query;
+
+    @Label("Rows")
+    public int rows;
+}
@@ -0,0 +1,92 @@
+package com.aetna.movies.ratings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.aetna.movies.dto.Movie;
+import com.aetna.movies.dto.Rating;
+
+// Local copy of every movie's rating, kept current by RatingsSubscription. Requests read it instead of
+// calling the ratings service once it has been loaded and has heard from the feed (an event, a heartbeat
+// or a poll) within movies.ratings-feed.max-staleness-seconds.
+@Component
+public class RatingsStore {
+
+    private final Map<Integer, Double> ratings = new ConcurrentHashMap<>();
+    private final long maxStalenessNanos;
+    private volatile boolean loaded;
+    private volatile long syncedAt;
+    private volatile String lastEventId;
+
+    public RatingsStore(@Value("${movies.ratings-feed.max-staleness-seconds:120}") long maxStalenessSeconds) {
+        this.maxStalenessNanos = TimeUnit.SECONDS.toNanos(maxStalenessSeconds);
+    }
+
+    public boolean isFresh() {
+        return loaded && System.nanoTime() - syncedAt < maxStalenessNanos;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public Double get(int movieId) {
+        return ratings.get(movieId);
+    }
+
+    public void put(int movieId, double rating) {
+        ratings.put(movieId, rating);
+    }
+
+    public List<Movie> applyTo(List<Movie> movies) {
+        for (Movie movie : movies) {
+            Double rating = ratings.get(movie.getMovieId());
+            if (rating != null) {
+                movie.setMovieRating(rating);
+            }
+        }
+        return movies;
+    }
+
+    public List<Rating> lookup(int[] movieIds) {
+        List<Rating> found = new ArrayList<>(movieIds.length);
+        for (int movieId : movieIds) {
+            Double rating = ratings.get(movieId);
+            if (rating != null) {
+                Rating patch = new Rating();
+                patch.setMovieId(movieId);
+                patch.setRating(rating);
+                found.add(patch);
+            }
+        }
+        return found;
+    }
+
+    public int size() {
+        return ratings.size();
+    }
+
+    // Offset of the last applied feed event, sent back as Last-Event-ID to resume after a reconnect
+    public String getLastEventId() {
+        return lastEventId;
+    }
+
+    void setLastEventId(String lastEventId) {
+        this.lastEventId = lastEventId;
+    }
+
+    void markLoaded() {
+        loaded = true;
+        touch();
+    }
+
+    void touch() {
+        syncedAt = System.nanoTime();
+    }
+}
@@ -0,0 +1,283 @@
+package com.aetna.movies.ratings;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.aetna.movies.catalog.CatalogService;
+import com.aetna.movies.dto.Rating;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// Keeps RatingsStore current from the ratings service's server-sent-events feed of rating changes.
+// Each event carries an id (the feed offset) and data that is one {"movieId", "rating"} object or an
+// array of them; comment lines are heartbeats. After a disconnect the feed is reopened with
+// Last-Event-ID so it resumes where it left off. The store is first filled, and kept fresh while the
+// feed is unavailable, by polling the bulk ratings endpoint for every movie in the catalog.
+// The switch is read at runtime rather than with @ConditionalOnProperty, which AOT would fix at build time.
+@Component
+@Slf4j
+public class RatingsSubscription {
+
+    private static final String EVENT_STREAM = "text/event-stream";
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    private static final long CATALOG_WAIT_MILLIS = 1000;
+
+    private final RatingsStore ratingsStore;
+    private final CatalogService catalogService;
+    private final ObjectMapper objectMapper;
+    private final HttpClient client;
+    private final Counter eventsCounter;
+    private final Counter malformedCounter;
+    private final Counter reconnectsCounter;
+    private final Counter pollsCounter;
+
+    @Value("${movies.ratings-feed.enabled:false}")
+    private boolean enabled;
+
+    @Value("${movies.ratings-feed.stream-url:}")
+    private String streamUrl;
+
+    @Value("${ratings.api.endpoint}")
+    private String ratingsEndpoint;
+
+    @Value("${movies.ratings-feed.reconnect-initial-millis:500}")
+    private long reconnectInitialMillis;
+
+    @Value("${movies.ratings-feed.reconnect-max-millis:30000}")
+    private long reconnectMaxMillis;
+
+    @Value("${movies.ratings-feed.fallback-after-failures:3}")
+    private int fallbackAfterFailures;
+
+    @Value("${movies.ratings-feed.poll-interval-seconds:60}")
+    private long pollIntervalSeconds;
+
+    @Value("${movies.ratings-feed.poll-batch-size:500}")
+    private int pollBatchSize;
+
+    private volatile boolean running;
+    private volatile Thread thread;
+    private volatile Stream<String> openStream;
+
+    public RatingsSubscription(RatingsStore ratingsStore, CatalogService catalogService, ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry) {
+        this.ratingsStore = ratingsStore;
+        this.catalogService = catalogService;
+        this.objectMapper = objectMapper;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.eventsCounter = Counter.builder("movies.ratings.feed.events")
+                .description("Rating change events applied from the ratings feed")
+                .register(meterRegistry);
+        this.malformedCounter = Counter.builder("movies.ratings.feed.malformed")
+                .description("Ratings feed events skipped because their data was not valid JSON")
+                .register(meterRegistry);
+        this.reconnectsCounter = Counter.builder("movies.ratings.feed.reconnects")
+                .description("Times the ratings feed was reopened after a disconnect or failure")
+                .register(meterRegistry);
+        this.pollsCounter = Counter.builder("movies.ratings.feed.polls")
+                .description("Full ratings refreshes from the bulk ratings endpoint")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "ratings-feed");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Subscribing to rating changes at {}", streamUrl);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        closeStream();
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    private void run() {
+        int failures = 0;
+        while (running) {
+            try {
+                if (!ratingsStore.isLoaded() && !poll()) {
+                    // The catalog is still loading, there is nothing to poll for yet
+                    Thread.sleep(CATALOG_WAIT_MILLIS);
+                    continue;
+                }
+                stream();
+                failures = 0;
+            } catch (IOException | RuntimeException e) {
+                failures++;
+                log.warn("Ratings feed failed ({} in a row): {}", failures, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!running) {
+                return;
+            }
+            reconnectsCounter.increment();
+            try {
+                if (failures >= fallbackAfterFailures) {
+                    // Feed unavailable: refresh by polling and try the feed again after each interval
+                    pollQuietly();
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(pollIntervalSeconds));
+                } else {
+                    Thread.sleep(backoffMillis(failures));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Exponential with jitter, so a restarted ratings service is not hit by every instance at once
+    long backoffMillis(int failures) {
+        long backoff = Math.min(reconnectInitialMillis << Math.min(failures, 20), reconnectMaxMillis);
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    // Blocks while the feed is open and returns when the server ends it
+    void stream() throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(streamUrl))
+                .GET()
+                .header("Accept", EVENT_STREAM);
+        String lastEventId = ratingsStore.getLastEventId();
+        if (lastEventId != null) {
+            request.header(LAST_EVENT_ID_HEADER, lastEventId);
+        }
+        HttpResponse<Stream<String>> response = client.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+        try (Stream<String> lines = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new IOException("Ratings feed returned status " + response.statusCode());
+            }
+            openStream = lines;
+            log.info("Ratings feed connected, resuming after event {}", lastEventId);
+            ratingsStore.touch();
+            readEvents(lines.iterator());
+        } finally {
+            openStream = null;
+        }
+    }
+
+    // A malformed event is skipped and its id still recorded, so a reconnect does not replay it forever
+    private void readEvents(Iterator<String> lines) {
+        String id = null;
+        StringBuilder data = new StringBuilder();
+        while (running && lines.hasNext()) {
+            String line = lines.next();
+            if (line.isEmpty()) {
+                if (!data.isEmpty()) {
+                    try {
+                        apply(data.toString());
+                    } catch (JsonProcessingException e) {
+                        malformedCounter.increment();
+                        log.warn("Skipping malformed ratings feed event {}: {}", id, e.getOriginalMessage());
+                    }
+                }
+                if (id != null) {
+                    ratingsStore.setLastEventId(id);
+                }
+                id = null;
+                data.setLength(0);
+            } else if (line.startsWith(":")) {
+                ratingsStore.touch();
+            } else if (line.startsWith("id:")) {
+                id = field(line, 3);
+            } else if (line.startsWith("data:")) {
+                if (!data.isEmpty()) {
+                    data.append('\n');
+                }
+                data.append(field(line, 5));
+            }
+            // event: and retry: fields are ignored, every event is a rating change
+        }
+    }
+
+    private static String field(String line, int nameLength) {
+        int start = line.length() > nameLength && line.charAt(nameLength) == ' ' ? nameLength + 1 : nameLength;
+        return line.substring(start);
+    }
+
+    private void apply(String data) throws JsonProcessingException {
+        JsonNode changes = objectMapper.readTree(data);
+        for (JsonNode change : changes.isArray() ? changes : objectMapper.createArrayNode().add(changes)) {
+            ratingsStore.put(change.path("movieId").asInt(), change.path("rating").asDouble());
+        }
+        ratingsStore.touch();
+        eventsCounter.increment();
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ratings poll failed: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Fetches every catalog movie's rating in batches from the bulk endpoint; false while the catalog is empty
+    boolean poll() throws IOException, InterruptedException {
+        int[] movieIds = catalogService.current().getMovies().ids();
+        if (movieIds.length == 0) {
+            return false;
+        }
+        for (int from = 0; from < movieIds.length; from += pollBatchSize) {
+            int[] batch = Arrays.copyOfRange(movieIds, from, Math.min(from + pollBatchSize, movieIds.length));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(ratingsEndpoint))
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(batch)))
+                    .header("Accept", "application/json")
+                    .header("Content-Type", "application/json")
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("Ratings poll returned status " + response.statusCode());
+            }
+            for (Rating rating : objectMapper.readValue(response.body(), Rating[].class)) {
+                ratingsStore.put(rating.getMovieId(), rating.getRating());
+            }
+        }
+        ratingsStore.markLoaded();
+        pollsCounter.increment();
+        log.info("Loaded ratings for {} movies from {}", movieIds.length, ratingsEndpoint);
+        return true;
+    }
+
+    private void closeStream() {
+        Stream<String> lines = openStream;
+        if (lines != null) {
+            lines.close();
+        }
+    }
+}
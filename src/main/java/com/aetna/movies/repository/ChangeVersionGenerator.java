@@ -0,0 +1,47 @@
+package com.aetna.movies.repository;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Hands out the monotonically increasing change versions stamped on every movies write, so a
+// mirror can ask for the rows changed after the last version it has seen. Seeded from the
+// highest version in the table on first use.
+@Component
+public class ChangeVersionGenerator {
+
+    private static final String MAX_VERSION = "SELECT COALESCE(MAX(changeVersion), 0) FROM movies";
+
+    private final JdbcTemplate jdbcTemplate;
+    private long lastVersion = -1;
+
+    public ChangeVersionGenerator(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public long next() {
+        return reserve(1);
+    }
+
+    // Reserves count consecutive versions and returns the first of them
+    public synchronized long reserve(int count) {
+        seed();
+        long first = lastVersion + 1;
+        lastVersion += count;
+        return first;
+    }
+
+    // Keeps versions increasing when the database is replaced by one that is further ahead
+    public synchronized void advanceTo(long version) {
+        seed();
+        lastVersion = Math.max(lastVersion, version);
+    }
+
+    private void seed() {
+        if (lastVersion < 0) {
+            Long max = jdbcTemplate.queryForObject(MAX_VERSION, Long.class);
+            lastVersion = max != null ? max : 0;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.aetna.movies.repository;
+
+import org.springframework.stereotype.Component;
+
+import com.aetna.movies.entity.MovieEntity;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+// Stamps JPA writes; the bulk importer reserves its versions directly
+@Component
+public class ChangeVersionListener {
+
+    private final ChangeVersionGenerator changeVersionGenerator;
+
+    public ChangeVersionListener(ChangeVersionGenerator changeVersionGenerator) {
+        this.changeVersionGenerator = changeVersionGenerator;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void stamp(MovieEntity movie) {
+        movie.setChangeVersion(changeVersionGenerator.next());
+    }
+}
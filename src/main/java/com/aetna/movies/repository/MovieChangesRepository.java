@@ -0,0 +1,32 @@
+package com.aetna.movies.repository;
+
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import com.aetna.movies.entity.MovieEntity;
+
+// Reads changed rows with a forward-only JDBC cursor, so a change feed of any length is streamed
+// without collecting the rows or filling a persistence context.
+@Repository
+public class MovieChangesRepository {
+
+    private static final String CHANGES_SINCE = "SELECT * FROM movies WHERE changeVersion > ? ORDER BY changeVersion";
+    private static final int FETCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MovieChangesRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    public void forEachChangeSince(long sinceVersion, Consumer<MovieEntity> action) {
+        RowCallbackHandler handler = rs -> action.accept(MovieRowMapper.INSTANCE.mapRow(rs, rs.getRow()));
+        jdbcTemplate.query(CHANGES_SINCE, handler, sinceVersion);
+    }
+}
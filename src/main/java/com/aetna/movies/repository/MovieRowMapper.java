@@ -0,0 +1,35 @@
+package com.aetna.movies.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import com.aetna.movies.entity.MovieEntity;
+
+// Plain JDBC mapping of a movies row, for reads that must bypass the JPA DataSource
+public class MovieRowMapper implements RowMapper<MovieEntity> {
+
+    public static final String SELECT_ALL = "SELECT * FROM movies";
+
+    public static final MovieRowMapper INSTANCE = new MovieRowMapper();
+
+    @Override
+    public MovieEntity mapRow(ResultSet rs, int rowNum) throws SQLException {
+        MovieEntity movie = new MovieEntity();
+        movie.setMovieId(rs.getInt("movieId"));
+        movie.setImdbId(rs.getString("imdbId"));
+        movie.setTitle(rs.getString("title"));
+        movie.setOverview(rs.getString("overview"));
+        movie.setProductionCompanies(rs.getString("productionCompanies"));
+        movie.setReleaseDate(rs.getString("releaseDate"));
+        movie.setBudget(rs.getLong("budget"));
+        movie.setRevenue(rs.getDouble("revenue"));
+        movie.setRuntime(rs.getDouble("runtime"));
+        movie.setLanguage(rs.getString("language"));
+        movie.setGenres(rs.getString("genres"));
+        movie.setStatus(rs.getString("status"));
+        movie.setChangeVersion(rs.getLong("changeVersion"));
+        return movie;
+    }
+}
@@ -0,0 +1,62 @@
+package com.aetna.movies.repository;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.aetna.movies.entity.MovieEntity;
+
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.extern.slf4j.Slf4j;
+
+// Brings a movies table written outside the application (the offline scripts, a replaced database file)
+// up to what MovieEntity expects, since ddl-auto only runs against the file present at startup.
+// Idempotent: columns and indexes that already exist are left alone.
+@Slf4j
+public final class MovieSchema {
+
+    // Every column MovieRowMapper reads that the offline scripts have always written
+    static final Set<String> REQUIRED_COLUMNS = Set.of("movieid", "imdbid", "title", "overview",
+            "productioncompanies", "releasedate", "budget", "revenue", "runtime", "language", "genres", "status");
+
+    private MovieSchema() {
+    }
+
+    // Throws IllegalStateException when the table cannot be brought up to date
+    public static void migrate(DataSource dataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Set<String> columns = columns(jdbcTemplate);
+        if (columns.isEmpty()) {
+            throw new IllegalStateException("Database file has no movies table");
+        }
+        if (!columns.contains("changeversion")) {
+            jdbcTemplate.execute("ALTER TABLE movies ADD COLUMN changeVersion INTEGER NOT NULL DEFAULT 0");
+            log.info("Added the changeVersion column to the movies table");
+        }
+        for (Index index : MovieEntity.class.getAnnotation(Table.class).indexes()) {
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + index.name()
+                    + " ON movies (" + index.columnList() + ")");
+        }
+
+        Set<String> missing = new TreeSet<>(REQUIRED_COLUMNS);
+        missing.removeAll(columns(jdbcTemplate));
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("movies table is missing columns " + missing);
+        }
+    }
+
+    // SQLite column names are case-insensitive, so they are compared in lower case
+    private static Set<String> columns(JdbcTemplate jdbcTemplate) {
+        Set<String> columns = new TreeSet<>();
+        jdbcTemplate.query("PRAGMA table_info(movies)",
+                rs -> {
+                    columns.add(rs.getString("name").toLowerCase(Locale.ROOT));
+                });
+        return columns;
+    }
+}
@@ -0,0 +1,92 @@
+package com.aetna.movies.repository;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Sort;
+
+import com.aetna.movies.entity.MovieEntity;
+
+// The orderings paged reads support. Each is backed by a (column, movieId) index on movies, and movieId is
+// always the tie-breaker in the same direction, so SQLite walks the index forwards or backwards and stops at
+// the page limit instead of sorting the whole result in a temporary B-tree.
+public enum MovieSort {
+
+    TITLE("title",
+            Comparator.comparing(MovieEntity::getTitle, Comparator.nullsFirst(Comparator.<String>naturalOrder()))),
+    RELEASE_DATE("releaseDate",
+            Comparator.comparing(MovieEntity::getReleaseDate, Comparator.nullsFirst(Comparator.<String>naturalOrder()))),
+    REVENUE("revenue", Comparator.comparingDouble(MovieEntity::getRevenue)),
+    BUDGET("budget", Comparator.comparingLong(MovieEntity::getBudget)),
+    RUNTIME("runtime", Comparator.comparingDouble(MovieEntity::getRuntime));
+
+    public static final Sort DEFAULT = TITLE.sort(Sort.Direction.ASC);
+
+    private static final String SUPPORTED = Arrays.stream(values()).map(MovieSort::property)
+            .collect(Collectors.joining(", "));
+
+    private final String property;
+    private final Comparator<MovieEntity> comparator;
+
+    MovieSort(String property, Comparator<MovieEntity> comparator) {
+        this.property = property;
+        this.comparator = comparator.thenComparingInt(MovieEntity::getMovieId);
+    }
+
+    public String property() {
+        return property;
+    }
+
+    public Sort sort(Sort.Direction direction) {
+        return Sort.by(direction, property, "movieId");
+    }
+
+    // "field" or "field,asc|desc", e.g. releaseDate,desc for newest first; null gives title order
+    public static Sort parse(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return DEFAULT;
+        }
+        String[] parts = sort.split(",", -1);
+        if (parts.length > 2) {
+            throw new IllegalArgumentException("Invalid sort: " + sort + ". Expected field,asc or field,desc");
+        }
+        MovieSort field = Arrays.stream(values())
+                .filter(value -> value.property.equalsIgnoreCase(parts[0].trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Invalid sort field: " + parts[0].trim()
+                        + ". Supported fields: " + SUPPORTED));
+        Sort.Direction direction = Sort.Direction.ASC;
+        if (parts.length == 2) {
+            direction = Sort.Direction.fromOptionalString(parts[1].trim().toUpperCase(Locale.ROOT))
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid sort direction: " + parts[1].trim()
+                            + ". Supported directions: asc, desc"));
+        }
+        return field.sort(direction);
+    }
+
+    // The field a Sort built by this enum orders by; an unsorted request falls back to title
+    public static MovieSort of(Sort sort) {
+        Sort.Order order = sort.stream().findFirst().orElse(null);
+        if (order == null) {
+            return TITLE;
+        }
+        return Arrays.stream(values())
+                .filter(value -> value.property.equals(order.getProperty()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported sort property: " + order.getProperty()));
+    }
+
+    public static Sort.Direction directionOf(Sort sort) {
+        return sort.stream().findFirst().map(Sort.Order::getDirection).orElse(Sort.Direction.ASC);
+    }
+
+    public String orderBy(Sort.Direction direction) {
+        return " ORDER BY " + property + " " + direction.name() + ", movieId " + direction.name();
+    }
+
+    public Comparator<MovieEntity> comparator(Sort.Direction direction) {
+        return direction.isDescending() ? comparator.reversed() : comparator;
+    }
+}
@@ -0,0 +1,24 @@
+package com.aetna.movies.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.aetna.movies.entity.MovieEntity;
+
+// The reads the service layer needs, served either by the single-file JPA repository or by
+// ShardedMovieStore. Paged results are ordered by the pageable's MovieSort, title when unsorted.
+public interface MovieStore {
+
+    Optional<MovieEntity> findById(Integer movieId);
+
+    List<MovieEntity> findAll();
+
+    Page<MovieEntity> findAll(Pageable pageable);
+
+    Page<MovieEntity> getMoviesByYear(int year, Pageable pageable);
+
+    Page<MovieEntity> getMoviesByGenre(String genre, Pageable pageable);
+}
@@ -1,5 +1,8 @@
 package com.aetna.movies.repository;
 
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,11 +13,23 @@ import org.springframework.stereotype.Repository;
 import com.aetna.movies.entity.MovieEntity;
 
 @Repository
-public interface MoviesRepository extends JpaRepository<MovieEntity, Integer> {
+public interface MoviesRepository extends JpaRepository<MovieEntity, Integer>, MovieStore {
+
+    // Redeclared so the JpaRepository and MovieStore variants resolve to a single method
+    @Override
+    Optional<MovieEntity> findById(Integer movieId);
+
+    @Override
+    List<MovieEntity> findAll();
+
+    @Override
+    Page<MovieEntity> findAll(Pageable pageable);
 
+    @Override
     @Query("SELECT m FROM MovieEntity m WHERE CAST(SUBSTR(m.releaseDate, 1, 4) AS INTEGER) = :year")
     Page<MovieEntity> getMoviesByYear(@Param("year") int year, Pageable pageable);
 
+    @Override
     @Query(value = "SELECT * FROM movies WHERE EXISTS (SELECT 1 FROM json_each(genres) WHERE json_extract(value, '$.name') = :genre)", nativeQuery = true)
     Page<MovieEntity> getMoviesByGenre(@Param("genre") String genre, Pageable pageable);
 
@@ -0,0 +1,162 @@
+package com.aetna.movies.repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import javax.sql.DataSource;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.aetna.movies.entity.MovieEntity;
+
+// Movies partitioned over several SQLite files by a hash of movieId, each behind its own pool.
+// A lookup by id goes to one shard. A page is scattered to every shard in parallel, each returning
+// its first offset + size rows in the requested MovieSort order, and the sorted runs are k-way merged.
+public class ShardedMovieStore implements MovieStore, AutoCloseable {
+
+    private static final String SELECT = "SELECT * FROM movies";
+    private static final String COUNT = "SELECT COUNT(*) FROM movies";
+    private static final String LIMIT = " LIMIT ?";
+    private static final String BY_ID = " WHERE movieId = ?";
+    private static final String BY_YEAR = " WHERE CAST(SUBSTR(releaseDate, 1, 4) AS INTEGER) = ?";
+    private static final String BY_GENRE =
+            " WHERE EXISTS (SELECT 1 FROM json_each(genres) WHERE json_extract(value, '$.name') = ?)";
+
+    private final List<DataSource> shards;
+    private final List<JdbcTemplate> templates;
+    private final Executor executor;
+
+    public ShardedMovieStore(List<DataSource> shards, Executor executor) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = List.copyOf(shards);
+        this.templates = shards.stream().map(JdbcTemplate::new).toList();
+        this.executor = executor;
+    }
+
+    public static int shardOf(int movieId, int shardCount) {
+        // Fibonacci hashing, so runs of consecutive ids spread evenly
+        int hash = movieId * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), shardCount);
+    }
+
+    @Override
+    public Optional<MovieEntity> findById(Integer movieId) {
+        JdbcTemplate shard = templates.get(shardOf(movieId, templates.size()));
+        return shard.query(SELECT + BY_ID, MovieRowMapper.INSTANCE, movieId).stream().findFirst();
+    }
+
+    @Override
+    public List<MovieEntity> findAll() {
+        List<MovieEntity> movies = new ArrayList<>();
+        scatter(shard -> shard.query(SELECT, MovieRowMapper.INSTANCE)).forEach(movies::addAll);
+        return movies;
+    }
+
+    @Override
+    public Page<MovieEntity> findAll(Pageable pageable) {
+        return page("", pageable);
+    }
+
+    @Override
+    public Page<MovieEntity> getMoviesByYear(int year, Pageable pageable) {
+        return page(BY_YEAR, pageable, year);
+    }
+
+    @Override
+    public Page<MovieEntity> getMoviesByGenre(String genre, Pageable pageable) {
+        return page(BY_GENRE, pageable, genre);
+    }
+
+    private Page<MovieEntity> page(String where, Pageable pageable, Object... args) {
+        MovieSort sort = MovieSort.of(pageable.getSort());
+        Sort.Direction direction = MovieSort.directionOf(pageable.getSort());
+        Comparator<MovieEntity> order = sort.comparator(direction);
+        long limit = pageable.getOffset() + pageable.getPageSize();
+        Object[] limitedArgs = new Object[args.length + 1];
+        System.arraycopy(args, 0, limitedArgs, 0, args.length);
+        limitedArgs[args.length] = limit;
+
+        List<ShardPage> shardPages = scatter(shard -> new ShardPage(
+                shard.query(SELECT + where + sort.orderBy(direction) + LIMIT, MovieRowMapper.INSTANCE, limitedArgs),
+                shard.queryForObject(COUNT + where, Long.class, args)));
+
+        long total = 0;
+        PriorityQueue<Run> runs = new PriorityQueue<>(shardPages.size(),
+                (a, b) -> order.compare(a.head(), b.head()));
+        for (ShardPage shardPage : shardPages) {
+            total += shardPage.total();
+            if (!shardPage.movies().isEmpty()) {
+                runs.add(new Run(shardPage.movies()));
+            }
+        }
+
+        long skip = pageable.getOffset();
+        List<MovieEntity> content = new ArrayList<>(pageable.getPageSize());
+        while (!runs.isEmpty() && content.size() < pageable.getPageSize()) {
+            Run run = runs.poll();
+            MovieEntity movie = run.next();
+            if (skip > 0) {
+                skip--;
+            } else {
+                content.add(movie);
+            }
+            if (run.hasNext()) {
+                runs.add(run);
+            }
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private <T> List<T> scatter(Function<JdbcTemplate, T> query) {
+        List<CompletableFuture<T>> futures = templates.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> query.apply(shard), executor))
+                .toList();
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource shard : shards) {
+            if (shard.isWrapperFor(AutoCloseable.class)) {
+                shard.unwrap(AutoCloseable.class).close();
+            }
+        }
+    }
+
+    private record ShardPage(List<MovieEntity> movies, long total) {
+    }
+
+    // One shard's rows, already in page order
+    private static final class Run {
+        private final List<MovieEntity> movies;
+        private int position;
+
+        private Run(List<MovieEntity> movies) {
+            this.movies = movies;
+        }
+
+        private MovieEntity head() {
+            return movies.get(position);
+        }
+
+        private MovieEntity next() {
+            return movies.get(position++);
+        }
+
+        private boolean hasNext() {
+            return position < movies.size();
+        }
+    }
+}
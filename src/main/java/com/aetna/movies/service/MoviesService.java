@@ -1,16 +1,47 @@
 package com.aetna.movies.service;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
+import org.springframework.data.domain.Sort;
+
+import com.aetna.movies.catalog.CatalogRollups;
+import com.aetna.movies.catalog.CatalogTopN;
 import com.aetna.movies.dto.Movie;
+import com.aetna.movies.dto.MovieChange;
+import com.aetna.movies.dto.MovieFilter;
+import com.aetna.movies.dto.MovieStats;
+import com.aetna.movies.dto.Rating;
 
 public interface MoviesService {
 
-    List<Movie> getAllMovies(int page, int size);
+    // Endpoints with a configured ratings default (movies.include-ratings.*)
+    enum RatingsDefault { ALL, YEAR, GENRE, DETAILS }
+
+    // includeRatings null falls back to the endpoint's configured default (movies.include-ratings.*).
+    // sort is one of the MovieSort orderings, see MovieSort.parse
+
+    boolean includeRatings(RatingsDefault endpoint, Boolean includeRatings);
+
+    List<Movie> getAllMovies(int page, int size, Sort sort, Boolean includeRatings);
+
+    List<Movie> getAllMoviesByYear(int year, int page, int size, Sort sort, Boolean includeRatings);
+
+    List<Movie> getAllMoviesByGenre(String genre, int page, int size, Sort sort, Boolean includeRatings);
+
+    Movie getMovieDetails(int movieId, Boolean includeRatings);
+
+    // Ratings of the given movies without modifying them, resolved the same way as for the JSON responses
+    List<Rating> getRatings(List<Movie> movies);
+
+    List<Movie> getTopMovies(CatalogTopN.Metric by, Integer year, String genre, int n);
+
+    List<MovieStats> getCatalogStats(Set<CatalogRollups.Dimension> groupBy, Integer year, String genre, String language);
 
-    List<Movie> getAllMoviesByYear(int year, int page, int size);
+    List<Movie> queryMovies(MovieFilter filter, int page, int size);
 
-    List<Movie> getAllMoviesByGenre(String genre, int page, int size);
+    List<Movie> getSimilarMovies(int movieId, int n);
 
-    Movie getMovieDetails(int movieId);
+    void streamChanges(long sinceVersion, Consumer<MovieChange> consumer);
 }
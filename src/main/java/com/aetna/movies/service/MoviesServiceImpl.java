@@ -1,10 +1,16 @@
 package com.aetna.movies.service;
 
 import java.net.http.HttpResponse;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,12 +21,29 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import com.aetna.movies.catalog.CatalogBitmapIndex;
+import com.aetna.movies.catalog.CatalogRollups;
+import com.aetna.movies.catalog.CatalogService;
+import com.aetna.movies.catalog.CatalogSnapshot;
+import com.aetna.movies.catalog.CatalogTopN;
+import com.aetna.movies.config.Deadline;
+import com.aetna.movies.config.RequestContextHolder;
 import com.aetna.movies.dto.Movie;
+import com.aetna.movies.dto.MovieChange;
+import com.aetna.movies.dto.MovieFilter;
+import com.aetna.movies.dto.MovieStats;
 import com.aetna.movies.dto.Rating;
 import com.aetna.movies.entity.MovieEntity;
+import com.aetna.movies.exception.DeadlineExceededException;
 import com.aetna.movies.exception.MoviesServiceException;
 import com.aetna.movies.mapper.EntityMapper;
-import com.aetna.movies.repository.MoviesRepository;
+import com.aetna.movies.metrics.StageMetrics;
+import com.aetna.movies.profiling.EntityMappingEvent;
+import com.aetna.movies.profiling.RatingsCallEvent;
+import com.aetna.movies.profiling.RepositoryQueryEvent;
+import com.aetna.movies.ratings.RatingsStore;
+import com.aetna.movies.repository.MovieChangesRepository;
+import com.aetna.movies.repository.MovieStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.Gson;
 
@@ -33,43 +56,103 @@ public class MoviesServiceImpl implements MoviesService {
     @Value("${ratings.api.endpoint}")
     private String RATINGS_API_ENDPOINT;
 
-    private MoviesRepository moviesRepository;
+    @Value("${movies.include-ratings.all:true}")
+    private boolean includeRatingsForAll;
+
+    @Value("${movies.include-ratings.year:false}")
+    private boolean includeRatingsForYear;
+
+    @Value("${movies.include-ratings.genre:true}")
+    private boolean includeRatingsForGenre;
+
+    @Value("${movies.include-ratings.details:true}")
+    private boolean includeRatingsForDetails;
+
+    // Ratings are skipped rather than started when less than this is left of the request deadline
+    @Value("${movies.deadline.min-ratings-millis:50}")
+    private long minRatingsBudgetMillis;
+
+    private MovieStore moviesRepository;
     private RestClientService restClientService;
+    private StageMetrics stageMetrics;
+    private CatalogService catalogService;
+    private MovieChangesRepository movieChangesRepository;
+    // Identical concurrent page and detail requests are collapsed into one query and one ratings call
+    private RequestCollapser requestCollapser;
+    private RatingsStore ratingsStore;
 
     @Autowired
-    public MoviesServiceImpl(MoviesRepository moviesRepository, RestClientService restClientService) {
+    public MoviesServiceImpl(MovieStore moviesRepository, RestClientService restClientService,
+                             StageMetrics stageMetrics, CatalogService catalogService,
+                             MovieChangesRepository movieChangesRepository, RequestCollapser requestCollapser,
+                             RatingsStore ratingsStore) {
         this.moviesRepository = moviesRepository;
         this.restClientService = restClientService;
+        this.stageMetrics = stageMetrics;
+        this.catalogService = catalogService;
+        this.movieChangesRepository = movieChangesRepository;
+        this.requestCollapser = requestCollapser;
+        this.ratingsStore = ratingsStore;
     }
 
     @Override
-    public List<Movie> getAllMovies(int page, int size) {
+    public boolean includeRatings(RatingsDefault endpoint, Boolean includeRatings) {
+        if (includeRatings != null) {
+            return includeRatings;
+        }
+        return switch (endpoint) {
+            case ALL -> includeRatingsForAll;
+            case YEAR -> includeRatingsForYear;
+            case GENRE -> includeRatingsForGenre;
+            case DETAILS -> includeRatingsForDetails;
+        };
+    }
+
+    @Override
+    public List<Movie> getAllMovies(int page, int size, Sort sort, Boolean includeRatings) {
+        boolean ratings = includeRatings(RatingsDefault.ALL, includeRatings);
+        checkDeadline();
+        return requestCollapser.execute("getAllMovies", Arrays.asList(page, size, sort, ratings),
+                () -> fetchAllMovies(page, size, sort, ratings));
+    }
+
+    @Override
+    public List<Movie> getAllMoviesByYear(int year, int page, int size, Sort sort, Boolean includeRatings) {
+        boolean ratings = includeRatings(RatingsDefault.YEAR, includeRatings);
+        checkDeadline();
+        return requestCollapser.execute("getAllMoviesByYear", Arrays.asList(year, page, size, sort, ratings),
+                () -> fetchAllMoviesByYear(year, page, size, sort, ratings));
+    }
+
+    @Override
+    public List<Movie> getAllMoviesByGenre(String genre, int page, int size, Sort sort, Boolean includeRatings) {
+        boolean ratings = includeRatings(RatingsDefault.GENRE, includeRatings);
+        checkDeadline();
+        return requestCollapser.execute("getAllMoviesByGenre", Arrays.asList(genre, page, size, sort, ratings),
+                () -> fetchAllMoviesByGenre(genre, page, size, sort, ratings));
+    }
+
+    @Override
+    public Movie getMovieDetails(int movieId, Boolean includeRatings) {
+        boolean ratings = includeRatings(RatingsDefault.DETAILS, includeRatings);
+        checkDeadline();
+        if (catalogService.isKnownAbsent(movieId)) {
+            // Never written: 404 without a database lookup or a ratings call
+            log.debug("Movie {} is not in the id filter", movieId);
+            return null;
+        }
+        return requestCollapser.execute("getMovieDetails", Arrays.asList(movieId, ratings),
+                () -> fetchMovieDetails(movieId, ratings));
+    }
+
+    private List<Movie> fetchAllMovies(int page, int size, Sort sort, boolean includeRatings) {
         try {
             log.info("Page {} of {} movies ", page, size);
-            Pageable pageable = PageRequest.of(page, size, Sort.Direction.ASC, "title");
-            Page<MovieEntity> moviesPage = moviesRepository.findAll(pageable);
+            Pageable pageable = PageRequest.of(page, size, sort);
+            Page<MovieEntity> moviesPage = query("findAll", () -> moviesRepository.findAll(pageable));
 
-            List<Movie> movies = moviesPage.stream()
-                    .map(EntityMapper::toDto)
-                    .toList();
-
-            if (!movies.isEmpty()) {
-                try {
-                    List<Rating> ratings = getMovieRatings(moviesPage.stream().mapToInt(MovieEntity::getMovieId).toArray());
-
-                    if (!ratings.isEmpty()) {
-                        for (Movie movie : movies) {
-                            ratings.stream()
-                                    .filter(rating -> rating.getMovieId() == movie.getMovieId())
-                                    .findFirst().ifPresent(dto -> movie.setMovieRating(dto.getRating()));
-                        }
-                    }
-                } catch (Exception e) {
-                    log.error("Error fetching ratings: {}", e.getMessage());
-                    // Set default rating to 0.0 for all movies when rating service fails
-                    movies.forEach(movie -> movie.setMovieRating(0.0));
-                }
-            }
+            List<Movie> movies = toDtos(moviesPage.getContent());
+            applyRatings(movies, includeRatings);
 
             return movies;
 
@@ -78,16 +161,16 @@ public class MoviesServiceImpl implements MoviesService {
         }
     }
 
-    @Override
-    public List<Movie> getAllMoviesByYear(int year, int page, int size) {
+    private List<Movie> fetchAllMoviesByYear(int year, int page, int size, Sort sort, boolean includeRatings) {
         try {
             log.info("Requesting movies for year {}", year);
-            Pageable pageable = PageRequest.of(page, size, Sort.Direction.ASC, "title");
-            Page<MovieEntity> moviesPage = moviesRepository.getMoviesByYear(year, pageable);
+            Pageable pageable = PageRequest.of(page, size, sort);
+            Page<MovieEntity> moviesPage = query("getMoviesByYear",
+                    () -> moviesRepository.getMoviesByYear(year, pageable));
             log.info("Movies {} of year {}", moviesPage.getNumberOfElements(), year);
-            List<Movie> movies = moviesPage.stream()
-                    .map(EntityMapper::toDto)
-                    .collect(Collectors.toList());
+
+            List<Movie> movies = toDtos(moviesPage.getContent());
+            applyRatings(movies, includeRatings);
 
             return movies;
         } catch (Exception e) {
@@ -95,42 +178,21 @@ public class MoviesServiceImpl implements MoviesService {
         }
     }
 
-    @Override
-    public List<Movie> getAllMoviesByGenre(String genre, int page, int size) {
+    private List<Movie> fetchAllMoviesByGenre(String genre, int page, int size, Sort sort,
+                                              boolean includeRatings) {
         try {
             if (genre == null || genre.trim().isEmpty()) {
                 throw new IllegalArgumentException("Genre cannot be null or empty");
             }
             
             log.info("Requesting movies for genre {}", genre);
-            Pageable pageable = PageRequest.of(page, size, Sort.Direction.ASC, "title");
-            Page<MovieEntity> moviesPage = moviesRepository.getMoviesByGenre(genre.trim(), pageable);
+            Pageable pageable = PageRequest.of(page, size, sort);
+            Page<MovieEntity> moviesPage = query("getMoviesByGenre",
+                    () -> moviesRepository.getMoviesByGenre(genre.trim(), pageable));
             log.info("Found {} movies of genre {}", moviesPage.getNumberOfElements(), genre);
             
-            List<Movie> movies = moviesPage.stream()
-                    .map(EntityMapper::toDto)
-                    .collect(Collectors.toList());
-
-            if (!movies.isEmpty()) {
-                try {
-                    List<Rating> ratings = getMovieRatings(moviesPage.stream()
-                            .mapToInt(MovieEntity::getMovieId)
-                            .toArray());
-
-                    if (!ratings.isEmpty()) {
-                        for (Movie movie : movies) {
-                            ratings.stream()
-                                    .filter(rating -> rating.getMovieId() == movie.getMovieId())
-                                    .findFirst()
-                                    .ifPresent(dto -> movie.setMovieRating(dto.getRating()));
-                        }
-                    }
-                } catch (Exception e) {
-                    log.error("Error fetching ratings: {}", e.getMessage());
-                    // Set default rating to 0.0 for all movies when rating service fails
-                    movies.forEach(movie -> movie.setMovieRating(0.0));
-                }
-            }
+            List<Movie> movies = toDtos(moviesPage.getContent());
+            applyRatings(movies, includeRatings);
 
             return movies;
         } catch (IllegalArgumentException e) {
@@ -141,28 +203,32 @@ public class MoviesServiceImpl implements MoviesService {
     }
 
     @Override
-    public Movie getMovieDetails(int movieId) {
+    public List<Rating> getRatings(List<Movie> movies) {
+        return movies.isEmpty() ? Collections.emptyList() : fetchRatings(movies);
+    }
+
+    private Movie fetchMovieDetails(int movieId, boolean includeRatings) {
         log.info("Fetch details for movie id {} ", movieId);
         try {
+            RepositoryQueryEvent event = new RepositoryQueryEvent();
+            event.begin();
             Optional<MovieEntity> movieEntity = moviesRepository.findById(movieId);
+            if (event.shouldCommit()) {
+                event.query = "findById";
+                event.rows = movieEntity.isPresent() ? 1 : 0;
+                event.commit();
+            }
 
-            log.info("Found movie {}", movieEntity);
+            log.debug("Movie {} found: {}", movieId, movieEntity.isPresent());
 
             if (movieEntity.isPresent()) {
-                Movie movie = EntityMapper.toDto(movieEntity.get());
-                try {
-                    int[] movieArr = { movieId };
-                    List<Rating> ratings = getMovieRatings(movieArr);
-                    if (!ratings.isEmpty()) {
-                        movie.setMovieRating(ratings.get(0).getRating());
-                    }
-                } catch (Exception e) {
-                    log.error("Error fetching ratings for movie {}: {}", movieId, e.getMessage());
-                    movie.setMovieRating(0.0);
-                }
-                return movie;
+                List<Movie> movies = stageMetrics.record(StageMetrics.MAPPING,
+                        () -> List.of(EntityMapper.toDto(movieEntity.get())));
+                applyRatings(movies, includeRatings);
+                return movies.get(0);
             }
 
+            catalogService.movieNotFound(movieId);
         } catch (Exception e) {
             throw new MoviesServiceException("Exception occurred while fetching movie details", e);
         }
@@ -170,22 +236,215 @@ public class MoviesServiceImpl implements MoviesService {
         return null;
     }
 
+    @Override
+    public List<Movie> getTopMovies(CatalogTopN.Metric by, Integer year, String genre, int n) {
+        log.info("Requesting top {} movies by {} for year {} and genre {}", n, by, year, genre);
+        List<Movie> movies = toDtos(catalogService.current().getTopN().top(by, year, genre, n));
+        applyRatings(movies);
+        return movies;
+    }
+
+    @Override
+    public List<MovieStats> getCatalogStats(Set<CatalogRollups.Dimension> groupBy, Integer year, String genre,
+                                            String language) {
+        log.info("Requesting catalog stats grouped by {}", groupBy);
+        return catalogService.current().getRollups().query(groupBy, year, genre, language);
+    }
+
+    @Override
+    public List<Movie> queryMovies(MovieFilter filter, int page, int size) {
+        log.info("Querying movies page {} of {}", page, size);
+        CatalogSnapshot snapshot = catalogService.current();
+        CatalogBitmapIndex bitmaps = snapshot.getBitmaps();
+        int[] movieIds = stageMetrics.record(StageMetrics.QUERY,
+                () -> bitmaps.page(bitmaps.evaluate(filter), page, size));
+
+        List<Movie> movies = toDtos(catalogEntities(snapshot, movieIds));
+        applyRatings(movies);
+        return movies;
+    }
+
+    @Override
+    public List<Movie> getSimilarMovies(int movieId, int n) {
+        log.info("Requesting {} movies similar to movie id {}", n, movieId);
+        CatalogSnapshot snapshot = catalogService.current();
+        if (snapshot.getMovies().get(movieId) == null) {
+            return null;
+        }
+        int[] movieIds = snapshot.getSimilarity().similar(movieId, n);
+        List<Movie> movies = toDtos(catalogEntities(snapshot, movieIds));
+        applyRatings(movies);
+        return movies;
+    }
+
+    @Override
+    public void streamChanges(long sinceVersion, Consumer<MovieChange> consumer) {
+        log.info("Streaming catalog changes since version {}", sinceVersion);
+        try {
+            movieChangesRepository.forEachChangeSince(sinceVersion, movieEntity -> consumer.accept(
+                    new MovieChange(movieEntity.getChangeVersion(), EntityMapper.toDto(movieEntity))));
+        } catch (Exception e) {
+            throw new MoviesServiceException("Exception occurred while streaming catalog changes", e);
+        }
+    }
+
+    private static List<MovieEntity> catalogEntities(CatalogSnapshot snapshot, int[] movieIds) {
+        List<MovieEntity> movieEntities = new ArrayList<>(movieIds.length);
+        for (int movieId : movieIds) {
+            MovieEntity movieEntity = snapshot.getMovies().get(movieId);
+            if (movieEntity != null) {
+                movieEntities.add(movieEntity);
+            }
+        }
+        return movieEntities;
+    }
+
+    // JFR events cost a field check unless a recording enables them; see ProfilingEndpoint
+    private Page<MovieEntity> query(String name, Supplier<Page<MovieEntity>> query) {
+        RepositoryQueryEvent event = new RepositoryQueryEvent();
+        event.begin();
+        Page<MovieEntity> page = query.get();
+        if (event.shouldCommit()) {
+            event.query = name;
+            event.rows = page.getNumberOfElements();
+            event.commit();
+        }
+        return page;
+    }
+
+    private List<Movie> toDtos(List<MovieEntity> movieEntities) {
+        return stageMetrics.record(StageMetrics.MAPPING, () -> {
+            EntityMappingEvent event = new EntityMappingEvent();
+            event.begin();
+            List<Movie> movies = movieEntities.stream()
+                    .map(EntityMapper::toDto)
+                    .collect(Collectors.toList());
+            if (event.shouldCommit()) {
+                event.movies = movies.size();
+                event.commit();
+            }
+            return movies;
+        });
+    }
+
+    private static void checkDeadline() {
+        Deadline deadline = RequestContextHolder.getDeadline();
+        if (deadline != null && deadline.isExpired()) {
+            throw new DeadlineExceededException("Request deadline exceeded");
+        }
+    }
+
+    private void applyRatings(List<Movie> movies, boolean includeRatings) {
+        if (includeRatings) {
+            applyRatings(movies);
+        }
+    }
+
+    private void applyRatings(List<Movie> movies) {
+        if (movies.isEmpty()) {
+            return;
+        }
+        List<Rating> ratings = fetchRatings(movies);
+        if (!ratings.isEmpty()) {
+            stageMetrics.record(StageMetrics.MERGE, () -> mergeRatings(movies, ratings));
+        }
+    }
+
+    // From the feed when it is fresh, otherwise from the ratings service within the request deadline.
+    // Movies the feed has not rated yet still go to the ratings service
+    private List<Rating> fetchRatings(List<Movie> movies) {
+        int[] movieIds = movies.stream().mapToInt(Movie::getMovieId).toArray();
+        if (!ratingsStore.isFresh()) {
+            return callRatings(movieIds);
+        }
+        List<Rating> stored = stageMetrics.record(StageMetrics.RATINGS, StageMetrics.OUTCOME_STORE,
+                () -> ratingsStore.lookup(movieIds));
+        Set<Integer> storedIds = stored.stream().map(Rating::getMovieId).collect(Collectors.toSet());
+        int[] missing = Arrays.stream(movieIds).filter(movieId -> !storedIds.contains(movieId)).distinct().toArray();
+        if (missing.length == 0) {
+            return stored;
+        }
+        List<Rating> ratings = new ArrayList<>(stored);
+        ratings.addAll(callRatings(missing));
+        return ratings;
+    }
+
+    // Empty when skipped for the deadline; 0.0 for every movie when the ratings service fails
+    private List<Rating> callRatings(int[] movieIds) {
+        Deadline deadline = RequestContextHolder.getDeadline();
+        if (deadline != null && deadline.remaining().toMillis() < minRatingsBudgetMillis) {
+            log.debug("Skipping ratings, {} ms left of the request deadline", deadline.remaining().toMillis());
+            requestCollapser.markDegraded();
+            return Collections.emptyList();
+        }
+        try {
+            List<Rating> ratings = stageMetrics.record(StageMetrics.RATINGS, () -> getMovieRatings(movieIds));
+            if (ratings.isEmpty()) {
+                // Also what a non-200 from the ratings service returns
+                requestCollapser.markDegraded();
+            }
+            return ratings;
+        } catch (Exception e) {
+            requestCollapser.markDegraded();
+            if (movieIds.length == 1) {
+                log.error("Error fetching ratings for movie {}: {}", movieIds[0], e.getMessage());
+            } else {
+                log.error("Error fetching ratings: {}", e.getMessage());
+            }
+            // Default rating of 0.0 for all movies when rating service fails
+            List<Rating> defaults = new ArrayList<>(movieIds.length);
+            for (int movieId : movieIds) {
+                Rating rating = new Rating();
+                rating.setMovieId(movieId);
+                rating.setRating(0.0);
+                defaults.add(rating);
+            }
+            return defaults;
+        }
+    }
+
+    private static List<Movie> mergeRatings(List<Movie> movies, List<Rating> ratings) {
+        Map<Integer, Double> ratingsById = new HashMap<>(ratings.size() * 2);
+        for (Rating rating : ratings) {
+            ratingsById.putIfAbsent(rating.getMovieId(), rating.getRating());
+        }
+        for (Movie movie : movies) {
+            Double rating = ratingsById.get(movie.getMovieId());
+            if (rating != null) {
+                movie.setMovieRating(rating);
+            }
+        }
+        return movies;
+    }
+
     private List<Rating> getMovieRatings(int[] movieIds) {
         Gson gson = new Gson();
         String jsonArray = gson.toJson(movieIds);
+        RatingsCallEvent event = new RatingsCallEvent();
+        event.begin();
+        HttpResponse<String> response = null;
         try {
-            HttpResponse<String> response = restClientService.post(RATINGS_API_ENDPOINT, jsonArray);
+            response = restClientService.post(RATINGS_API_ENDPOINT, jsonArray);
+            event.end();
 
             if (response.statusCode() == 200) {
-                log.info("Movies successfully retrieved");
+                log.debug("Ratings successfully retrieved for {} movies", movieIds.length);
                 ObjectMapper objectMapper = new ObjectMapper();
                 Rating[] ratingList = objectMapper.readValue(response.body(), Rating[].class);
                 return Arrays.asList(ratingList);
             } else {
-                log.info("Movies retrieval failed: " + response.statusCode());
+                log.warn("Ratings retrieval failed with status {}", response.statusCode());
             }
         } catch (Exception e) {
             throw new MoviesServiceException("Exception occurred while fetching movie ratings", e);
+        } finally {
+            if (event.shouldCommit()) {
+                event.movieIds = movieIds.length;
+                event.requestBytes = jsonArray.length();
+                event.status = response != null ? response.statusCode() : 0;
+                event.responseBytes = response != null && response.body() != null ? response.body().length() : 0;
+                event.commit();
+            }
         }
         return Collections.emptyList();
     }
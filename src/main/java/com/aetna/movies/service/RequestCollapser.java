@@ -0,0 +1,107 @@
+package com.aetna.movies.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.aetna.movies.config.Deadline;
+import com.aetna.movies.config.RequestContextHolder;
+import com.aetna.movies.exception.DeadlineExceededException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Singleflight: concurrent calls with the same operation and arguments share one execution. The first
+// caller runs the work on its own thread and the others wait for its result or exception. Nothing is
+// kept once the call completes, so a later call always runs again and never sees a stale result.
+// Callers receive the same result instance and must not modify it. The work runs in the leader's request
+// context, so upstream calls it makes carry the leader's clientRefId and deadline. A result the leader had to
+// degrade for its own budget (see markDegraded) is not shared: the waiting callers then run the work themselves.
+@Component
+public class RequestCollapser {
+
+    private static final Object RUN_AGAIN = new Object();
+    private static final ThreadLocal<Boolean> DEGRADED = new ThreadLocal<>();
+
+    private final ConcurrentMap<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> collapsed = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+
+    public RequestCollapser(MeterRegistry meterRegistry,
+                            @Value("${movies.singleflight.enabled:true}") boolean enabled) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, List<Object> arguments, Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+        List<Object> key = List.of(operation, arguments);
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, call);
+        if (leader != null) {
+            counter(operation).increment();
+            Object result = await(leader);
+            return result != RUN_AGAIN ? (T) result : work.get();
+        }
+        DEGRADED.set(Boolean.FALSE);
+        try {
+            T result = work.get();
+            call.complete(DEGRADED.get() ? RUN_AGAIN : result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            DEGRADED.remove();
+            inFlight.remove(key, call);
+        }
+    }
+
+    // Called from inside the work when its result depends on the leader's own state, such as ratings left out
+    // because the leader's deadline was nearly spent; a no-op outside a collapsed call
+    public void markDegraded() {
+        if (DEGRADED.get() != null) {
+            DEGRADED.set(Boolean.TRUE);
+        }
+    }
+
+    // A waiting caller gives up at its own deadline, even though the leader keeps running for the others
+    private static Object await(CompletableFuture<Object> leader) {
+        Deadline deadline = RequestContextHolder.getDeadline();
+        try {
+            return deadline != null ? leader.get(deadline.remaining().toNanos(), TimeUnit.NANOSECONDS) : leader.get();
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("Request deadline exceeded while waiting for an identical request");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an identical request", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private Counter counter(String operation) {
+        return collapsed.computeIfAbsent(operation, name -> Counter.builder("movies.requests.collapsed")
+                .description("Calls that waited for an identical call already in flight instead of running")
+                .tag("operation", name)
+                .register(meterRegistry));
+    }
+}
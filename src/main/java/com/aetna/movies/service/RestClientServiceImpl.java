@@ -5,10 +5,18 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.Executor;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import com.aetna.movies.config.ClientRefIdHolder;
+import com.aetna.movies.config.Deadline;
+import com.aetna.movies.config.ExecutorConfig;
+import com.aetna.movies.config.RequestContextHolder;
+import com.aetna.movies.config.RequestInterceptor;
 
 import io.opentelemetry.api.GlobalOpenTelemetry;
 import io.opentelemetry.api.common.AttributeKey;
@@ -30,8 +38,10 @@ public class RestClientServiceImpl implements RestClientService {
     private final Tracer tracer;
     private final TextMapPropagator propagator;
 
-    public RestClientServiceImpl() {
-        this.client = HttpClient.newHttpClient();
+    public RestClientServiceImpl(@Qualifier(ExecutorConfig.RATINGS_EXECUTOR) Executor ratingsExecutor) {
+        this.client = HttpClient.newBuilder()
+                .executor(ratingsExecutor)
+                .build();
         this.tracer = GlobalOpenTelemetry.getTracer("com.aetna.movies");
         this.propagator = GlobalOpenTelemetry.getPropagators().getTextMapPropagator();
     }
@@ -55,6 +65,7 @@ public class RestClientServiceImpl implements RestClientService {
             if (clientRefId != null) {
                 requestBuilder.header(CLIENT_REF_ID_HEADER, clientRefId);
             }
+            applyDeadline(requestBuilder);
 
             // Inject the current context into the request headers
             Context context = Context.current().with(span);
@@ -93,6 +104,7 @@ public class RestClientServiceImpl implements RestClientService {
             if (clientRefId != null) {
                 requestBuilder.header(CLIENT_REF_ID_HEADER, clientRefId);
             }
+            applyDeadline(requestBuilder);
 
             // Inject the current context into the request headers
             Context context = Context.current().with(span);
@@ -110,4 +122,18 @@ public class RestClientServiceImpl implements RestClientService {
             span.end();
         }
     }
+
+    // The request may not outlive the caller's deadline, and the ratings service is told how long it has
+    private static void applyDeadline(HttpRequest.Builder requestBuilder) throws HttpTimeoutException {
+        Deadline deadline = RequestContextHolder.getDeadline();
+        if (deadline == null) {
+            return;
+        }
+        Duration remaining = deadline.remaining();
+        if (remaining.isZero()) {
+            throw new HttpTimeoutException("Request deadline exceeded before the call was made");
+        }
+        requestBuilder.timeout(remaining)
+                .header(RequestInterceptor.REQUEST_TIMEOUT_HEADER, Long.toString(Math.max(remaining.toMillis(), 1)));
+    }
 }
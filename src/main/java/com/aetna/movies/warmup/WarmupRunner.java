@@ -0,0 +1,171 @@
+package com.aetna.movies.warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.aetna.movies.config.ExecutorConfig;
+import com.aetna.movies.config.RequestContextHolder;
+import com.aetna.movies.dto.Movie;
+import com.aetna.movies.repository.MovieSort;
+import com.aetna.movies.service.MoviesService;
+import com.aetna.movies.service.RestClientService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+
+// Replays a synthetic workload through MoviesService before the instance takes traffic, so the JIT,
+// Hibernate, the SQLite page cache and the ratings connection pool are warm for the first real request.
+// Spring Boot only publishes ReadinessState.ACCEPTING_TRAFFIC after every ApplicationReadyEvent
+// listener has returned, so running synchronously here keeps /actuator/health/readiness DOWN until done.
+@Component
+@Slf4j
+public class WarmupRunner {
+
+    static final String WARMUP = "warmup";
+
+    private final MoviesService moviesService;
+    private final RestClientService restClientService;
+    private final Executor ratingsExecutor;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong durationNanos = new AtomicLong();
+
+    @Value("${ratings.api.endpoint}")
+    private String ratingsEndpoint;
+
+    @Value("${movies.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${movies.warmup.iterations:50}")
+    private int iterations;
+
+    @Value("${movies.warmup.max-duration-seconds:60}")
+    private long maxDurationSeconds;
+
+    @Value("${movies.warmup.page-size:20}")
+    private int pageSize;
+
+    @Value("${movies.warmup.pages:5}")
+    private int pages;
+
+    @Value("${movies.warmup.years:1995,2010}")
+    private List<Integer> years;
+
+    @Value("${movies.warmup.genres:Action,Drama,Comedy}")
+    private List<String> genres;
+
+    @Value("${movies.warmup.include-ratings:true}")
+    private boolean includeRatings;
+
+    @Value("${movies.warmup.ratings-connections:8}")
+    private int ratingsConnections;
+
+    public WarmupRunner(MoviesService moviesService, RestClientService restClientService,
+                        @Qualifier(ExecutorConfig.RATINGS_EXECUTOR) Executor ratingsExecutor,
+                        ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.moviesService = moviesService;
+        this.restClientService = restClientService;
+        this.ratingsExecutor = ratingsExecutor;
+        this.objectMapper = objectMapper;
+        TimeGauge.builder("movies.warmup.duration", durationNanos, TimeUnit.NANOSECONDS, AtomicLong::get)
+                .description("Time spent warming up before reporting ready")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(maxDurationSeconds);
+        RequestContextHolder.setClientRefId(WARMUP);
+        RequestContextHolder.setEndpoint(WARMUP);
+        int completed = 0;
+        int failed = 0;
+        try {
+            connectRatings();
+            for (int iteration = 0; iteration < iterations && System.nanoTime() < deadline; iteration++) {
+                for (Runnable call : workload(iteration)) {
+                    try {
+                        call.run();
+                        completed++;
+                    } catch (RuntimeException e) {
+                        failed++;
+                        log.debug("Warm-up call failed: {}", e.getMessage());
+                    }
+                }
+            }
+        } finally {
+            RequestContextHolder.clear();
+            durationNanos.set(System.nanoTime() - start);
+        }
+        log.info("Warm-up finished in {} ms ({} calls, {} failed)", TimeUnit.NANOSECONDS.toMillis(durationNanos.get()),
+                completed, failed);
+    }
+
+    long getDurationNanos() {
+        return durationNanos.get();
+    }
+
+    private List<Runnable> workload(int iteration) {
+        int page = iteration % Math.max(pages, 1);
+        Boolean ratings = includeRatings;
+        List<Runnable> calls = new ArrayList<>();
+        calls.add(() -> {
+            List<Movie> movies = serialize(moviesService.getAllMovies(page, pageSize, MovieSort.DEFAULT, ratings));
+            if (!movies.isEmpty()) {
+                serialize(moviesService.getMovieDetails(movies.get(iteration % movies.size()).getMovieId(), ratings));
+            }
+        });
+        if (!years.isEmpty()) {
+            int year = years.get(iteration % years.size());
+            calls.add(() -> serialize(moviesService.getAllMoviesByYear(year, page, pageSize, MovieSort.DEFAULT, ratings)));
+        }
+        if (!genres.isEmpty()) {
+            String genre = genres.get(iteration % genres.size());
+            calls.add(() -> serialize(moviesService.getAllMoviesByGenre(genre, page, pageSize, MovieSort.DEFAULT, ratings)));
+        }
+        return calls;
+    }
+
+    // The HTTP/1.1 client keeps idle connections alive, so concurrent empty lookups leave that many open
+    private void connectRatings() {
+        if (!includeRatings || ratingsConnections <= 0) {
+            return;
+        }
+        CompletableFuture<?>[] connections = new CompletableFuture<?>[ratingsConnections];
+        for (int i = 0; i < ratingsConnections; i++) {
+            connections[i] = CompletableFuture.runAsync(() -> {
+                try {
+                    restClientService.post(ratingsEndpoint, "[]");
+                } catch (Exception e) {
+                    log.debug("Warm-up ratings connection failed: {}", e.getMessage());
+                }
+            }, ratingsExecutor);
+        }
+        CompletableFuture.allOf(connections).join();
+    }
+
+    // Runs the response through Jackson too, as the controller would
+    private <T> T serialize(T body) {
+        try {
+            objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize warm-up response", e);
+        }
+        return body;
+    }
+}
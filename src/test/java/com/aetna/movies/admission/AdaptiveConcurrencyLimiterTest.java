@@ -0,0 +1,80 @@
+package com.aetna.movies.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void testTryAcquire_RejectsAboveLimit() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 1000, clock::get);
+
+        // Act & Assert
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(5));
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void testLimit_GrowsWhileLatencyIsStable() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 1000, clock::get);
+
+        // Act
+        for (int window = 0; window < 20; window++) {
+            saturate(limiter, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        // Assert
+        assertTrue(limiter.getLimit() > 10);
+    }
+
+    @Test
+    void testLimit_ShrinksWhenLatencyRises() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 1, 100, 1000, clock::get);
+        for (int window = 0; window < 5; window++) {
+            saturate(limiter, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        int baseline = limiter.getLimit();
+
+        // Act
+        for (int window = 0; window < 10; window++) {
+            saturate(limiter, TimeUnit.MILLISECONDS.toNanos(100));
+        }
+
+        // Assert
+        assertTrue(limiter.getLimit() < baseline);
+    }
+
+    @Test
+    void testConstructor_InvalidLimits() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(5, 10, 20, 1000));
+    }
+
+    // Fills the limiter up, then completes every request with the given latency in one window
+    private void saturate(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+        int admitted = 0;
+        while (limiter.tryAcquire()) {
+            admitted++;
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        for (int i = 0; i < admitted; i++) {
+            limiter.release(rttNanos);
+        }
+    }
+}
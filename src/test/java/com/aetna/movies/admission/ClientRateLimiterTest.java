@@ -0,0 +1,65 @@
+package com.aetna.movies.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class ClientRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void testTryAcquire_BurstThenRejected() {
+        // Arrange
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 3, 4, 16, clock::get);
+
+        // Act & Assert
+        assertTrue(limiter.tryAcquire("client-a"));
+        assertTrue(limiter.tryAcquire("client-a"));
+        assertTrue(limiter.tryAcquire("client-a"));
+        assertFalse(limiter.tryAcquire("client-a"));
+    }
+
+    @Test
+    void testTryAcquire_RefillsOverTime() {
+        // Arrange
+        ClientRateLimiter limiter = new ClientRateLimiter(2, 1, 4, 16, clock::get);
+        assertTrue(limiter.tryAcquire("client-a"));
+        assertFalse(limiter.tryAcquire("client-a"));
+
+        // Act
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+
+        // Assert
+        assertTrue(limiter.tryAcquire("client-a"));
+    }
+
+    @Test
+    void testTryAcquire_ClientsAreIndependent() {
+        // Arrange
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 1, 4, 16, clock::get);
+
+        // Act & Assert
+        assertTrue(limiter.tryAcquire("client-a"));
+        assertFalse(limiter.tryAcquire("client-a"));
+        assertTrue(limiter.tryAcquire("client-b"));
+    }
+
+    @Test
+    void testRelease_ReturnsPermitUpToBurst() {
+        // Arrange
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 1, 4, 16, clock::get);
+        assertTrue(limiter.tryAcquire("client-a"));
+
+        // Act
+        limiter.release("client-a");
+        limiter.release("client-a");
+
+        // Assert
+        assertTrue(limiter.tryAcquire("client-a"));
+        assertFalse(limiter.tryAcquire("client-a"));
+    }
+}
@@ -0,0 +1,154 @@
+package com.aetna.movies.catalog;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import com.aetna.movies.dto.MovieFilter;
+import com.aetna.movies.entity.MovieEntity;
+
+class CatalogBitmapIndexTest {
+
+    private static final String ACTION = "[{\"id\": 28, \"name\": \"Action\"}]";
+    private static final String COMEDY = "[{\"id\": 35, \"name\": \"Comedy\"}]";
+
+    private CatalogBitmapIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CatalogBitmapIndex();
+        index.add(movie(1, "Heat", "1995-12-15", "en", 170, ACTION));
+        index.add(movie(2, "Clueless", "1995-07-19", "en", 97, COMEDY));
+        index.add(movie(3, "Amelie", "2001-04-25", "fr", 122, COMEDY));
+        index.add(movie(4, "Die Hard", "1988-07-15", "en", 132, ACTION));
+        index.seal();
+    }
+
+    @Test
+    void testEvaluate_AndOfConditions() {
+        // Arrange
+        MovieFilter filter = MovieFilter.builder().genre("Action").yearFrom(1990).yearTo(1999).build();
+
+        // Act & Assert
+        assertArrayEquals(new int[] {1}, index.evaluate(filter).toArray());
+    }
+
+    @Test
+    void testEvaluate_NestedOr() {
+        // Arrange
+        MovieFilter filter = MovieFilter.builder()
+                .or(List.of(MovieFilter.builder().language("fr").build(),
+                        MovieFilter.builder().genre("Action").runtimeMax(140.0).build()))
+                .build();
+
+        // Act & Assert
+        assertArrayEquals(new int[] {3, 4}, index.evaluate(filter).toArray());
+    }
+
+    @Test
+    void testPage_OrderedByTitle() {
+        // Arrange
+        RoaringBitmap all = index.evaluate(new MovieFilter());
+
+        // Act & Assert
+        assertArrayEquals(new int[] {3, 2}, index.page(all, 0, 2));
+        assertArrayEquals(new int[] {4, 1}, index.page(all, 1, 2));
+        assertEquals(0, index.page(all, 2, 2).length);
+    }
+
+    @Test
+    void testEvaluate_ReflectsChangesAfterSeal() {
+        // Arrange
+        MovieFilter comedies = MovieFilter.builder().genre("Comedy").build();
+        RoaringBitmap before = index.evaluate(comedies);
+
+        // Act
+        index.remove(movie(2, "Clueless", "1995-07-19", "en", 97, COMEDY));
+        index.add(movie(5, "Airplane!", "1980-07-02", "en", 88, COMEDY));
+
+        // Assert
+        assertArrayEquals(new int[] {2, 3}, before.toArray());
+        assertArrayEquals(new int[] {5, 3}, index.page(index.evaluate(comedies), 0, 10));
+    }
+
+    @Test
+    void testUpdate_AppliesChunkAfterSeal() {
+        // Arrange
+        MovieFilter comedies = MovieFilter.builder().genre("Comedy").build();
+        MovieFilter action = MovieFilter.builder().genre("Action").build();
+        RoaringBitmap before = index.evaluate(comedies);
+
+        // Act
+        index.update(List.of(movie(2, "Clueless", "1995-07-19", "en", 97, COMEDY),
+                        movie(3, "Amelie", "2001-04-25", "fr", 122, COMEDY)),
+                List.of(movie(2, "Clueless", "1995-07-19", "en", 97, ACTION),
+                        movie(3, "Amelie", "2001-04-25", "fr", 122, COMEDY),
+                        movie(5, "Airplane!", "1980-07-02", "en", 88, COMEDY)));
+
+        // Assert
+        assertArrayEquals(new int[] {2, 3}, before.toArray());
+        assertArrayEquals(new int[] {5, 3}, index.page(index.evaluate(comedies), 0, 10));
+        assertArrayEquals(new int[] {1, 2, 4}, index.evaluate(action).toArray());
+        assertEquals(5, index.evaluate(new MovieFilter()).getCardinality());
+    }
+
+    @Test
+    void testEvaluate_BudgetRangeIsExactAtBucketEdges() {
+        // Arrange
+        index.add(budgeted(10, 100_000_000L));
+        index.add(budgeted(11, 104_000_000L));
+        index.add(budgeted(12, 111_000_000L));
+        MovieFilter filter = MovieFilter.builder().budgetMin(100_000_001L).budgetMax(111_000_000L).build();
+
+        // Act & Assert
+        assertArrayEquals(new int[] {11, 12}, index.evaluate(filter).toArray());
+    }
+
+    @Test
+    void testEvaluate_RejectsDeeplyNestedFilters() {
+        // Arrange
+        MovieFilter filter = MovieFilter.builder().genre("Action").build();
+        for (int depth = 0; depth < CatalogBitmapIndex.MAX_FILTER_DEPTH; depth++) {
+            filter = MovieFilter.builder().and(List.of(filter)).build();
+        }
+        MovieFilter tooDeep = filter;
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> index.evaluate(tooDeep));
+    }
+
+    @Test
+    void testPage_SelectiveFilterInTitleOrder() {
+        // Arrange
+        for (int id = 100; id < 200; id++) {
+            index.add(movie(id, "Zz " + id, "2010-01-01", "de", 90, ACTION));
+        }
+        RoaringBitmap comedies = index.evaluate(MovieFilter.builder().genre("Comedy").build());
+
+        // Act & Assert
+        assertArrayEquals(new int[] {3, 2}, index.page(comedies, 0, 10));
+    }
+
+    private static MovieEntity budgeted(int id, long budget) {
+        MovieEntity movie = movie(id, "Budget " + id, "2005-01-01", "en", 100, ACTION);
+        movie.setBudget(budget);
+        return movie;
+    }
+
+    private static MovieEntity movie(int id, String title, String releaseDate, String language, double runtime,
+                                     String genres) {
+        MovieEntity movie = new MovieEntity();
+        movie.setMovieId(id);
+        movie.setTitle(title);
+        movie.setReleaseDate(releaseDate);
+        movie.setLanguage(language);
+        movie.setRuntime(runtime);
+        movie.setGenres(genres);
+        return movie;
+    }
+}
@@ -0,0 +1,67 @@
+package com.aetna.movies.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.aetna.movies.entity.MovieEntity;
+
+class CatalogIdFilterTest {
+
+    private static final int LOADED = 10_000;
+
+    private CatalogIdFilter idFilter;
+
+    @BeforeEach
+    void setUp() {
+        idFilter = new CatalogIdFilter();
+        for (int movieId = 1; movieId <= LOADED; movieId++) {
+            idFilter.add(movie(movieId));
+        }
+        idFilter.seal();
+    }
+
+    @Test
+    void testMightContain_EveryAddedIdBeforeAndAfterSeal() {
+        // Act
+        idFilter.add(LOADED + 1);
+        idFilter.remove(movie(1));
+
+        // Assert
+        for (int movieId = 1; movieId <= LOADED + 1; movieId++) {
+            assertTrue(idFilter.mightContain(movieId), "Missing id " + movieId);
+        }
+    }
+
+    @Test
+    void testMightContain_RejectsMostUnknownIds() {
+        // Act
+        int falsePositives = 0;
+        for (int movieId = LOADED + 1; movieId <= 2 * LOADED; movieId++) {
+            if (idFilter.mightContain(movieId)) {
+                falsePositives++;
+            }
+        }
+
+        // Assert
+        assertTrue(falsePositives < LOADED / 50, "False positives: " + falsePositives);
+    }
+
+    @Test
+    void testMightContain_EverythingUntilSealed() {
+        // Arrange
+        CatalogIdFilter unsealed = new CatalogIdFilter();
+        unsealed.add(1);
+
+        // Act & Assert
+        assertFalse(unsealed.isSealed());
+        assertTrue(unsealed.mightContain(42));
+    }
+
+    private static MovieEntity movie(int movieId) {
+        MovieEntity movie = new MovieEntity();
+        movie.setMovieId(movieId);
+        return movie;
+    }
+}
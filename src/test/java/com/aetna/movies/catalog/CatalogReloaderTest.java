@@ -0,0 +1,124 @@
+package com.aetna.movies.catalog;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.aetna.movies.config.SwappableDataSource;
+import com.aetna.movies.entity.MovieEntity;
+import com.aetna.movies.exception.MoviesServiceException;
+import com.aetna.movies.repository.ChangeVersionGenerator;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CatalogReloaderTest {
+
+    @TempDir
+    Path directory;
+
+    private JdbcTemplate file;
+    private DriverManagerDataSource initial;
+    private SwappableDataSource dataSource;
+    private CatalogService catalogService;
+    private CatalogReloader reloader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String url = "jdbc:sqlite:" + directory.resolve("movies.db");
+        file = new JdbcTemplate(new DriverManagerDataSource(url));
+        initial = new DriverManagerDataSource(url);
+        dataSource = new SwappableDataSource(initial);
+        catalogService = mock(CatalogService.class);
+        when(catalogService.current()).thenReturn(CatalogSnapshot.empty());
+        when(catalogService.writeLock()).thenReturn(new ReentrantLock());
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl(url);
+        reloader = new CatalogReloader(catalogService, dataSource, new ChangeVersionGenerator(dataSource),
+                properties, new StandardEnvironment(), new SimpleMeterRegistry(), 0, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reloader.shutdown();
+        if (dataSource.getTarget() instanceof HikariDataSource pool) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void testReload_MigratesFileWithoutChangeVersion() {
+        // Arrange
+        file.execute("CREATE TABLE movies (movieId INTEGER PRIMARY KEY, imdbId TEXT, title TEXT, overview TEXT, "
+                + "productionCompanies TEXT, releaseDate TEXT, budget INTEGER, revenue REAL, runtime REAL, "
+                + "language TEXT, genres TEXT, status TEXT)");
+        file.update("INSERT INTO movies (movieId, imdbId, title, releaseDate) VALUES (1, 'tt0113277', 'Heat', "
+                + "'1995-12-15')");
+
+        // Act
+        CatalogReloader.ReloadResult result = reloader.reload();
+
+        // Assert
+        assertEquals("reloaded", result.status());
+        assertEquals(1, result.movies());
+        assertEquals(1L, file.queryForObject("SELECT changeVersion FROM movies WHERE movieId = 1", Long.class));
+        assertEquals(1, file.queryForObject(
+                "SELECT COUNT(*) FROM sqlite_master WHERE type = 'index' AND name = 'idx_movies_title'",
+                Integer.class));
+        verify(catalogService).replace(any(CatalogSnapshot.class));
+    }
+
+    @Test
+    void testReload_StampsOnlyChangedRows() {
+        // Arrange
+        file.execute("CREATE TABLE movies (movieId INTEGER PRIMARY KEY, imdbId TEXT, title TEXT, overview TEXT, "
+                + "productionCompanies TEXT, releaseDate TEXT, budget INTEGER, revenue REAL, runtime REAL, "
+                + "language TEXT, genres TEXT, status TEXT, changeVersion INTEGER NOT NULL DEFAULT 0)");
+        file.update("INSERT INTO movies (movieId, title, changeVersion) VALUES (1, 'Heat', 7), (2, 'Alien', 8)");
+        when(catalogService.current()).thenReturn(CatalogSnapshot.build(List.of(movie(1, "Heat", 7),
+                movie(2, "Aliens", 8))));
+
+        // Act
+        reloader.reload();
+
+        // Assert
+        assertEquals(List.of(7L, 9L), file.queryForList(
+                "SELECT changeVersion FROM movies ORDER BY movieId", Long.class));
+    }
+
+    @Test
+    void testReload_RejectsFileWithoutMoviesTable() {
+        // Arrange
+        file.execute("CREATE TABLE genres (id INTEGER PRIMARY KEY, name TEXT)");
+
+        // Act & Assert
+        assertThrows(MoviesServiceException.class, reloader::reload);
+        assertSame(initial, dataSource.getTarget());
+        verify(catalogService, never()).replace(any(CatalogSnapshot.class));
+    }
+
+    private static MovieEntity movie(int id, String title, long changeVersion) {
+        MovieEntity movie = new MovieEntity();
+        movie.setMovieId(id);
+        movie.setTitle(title);
+        movie.setChangeVersion(changeVersion);
+        return movie;
+    }
+}
@@ -0,0 +1,146 @@
+package com.aetna.movies.catalog;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.aetna.movies.catalog.CatalogRollups.Dimension;
+import com.aetna.movies.dto.MovieStats;
+import com.aetna.movies.entity.MovieEntity;
+
+class CatalogRollupsTest {
+
+    private CatalogRollups rollups;
+
+    @BeforeEach
+    void setUp() {
+        rollups = new CatalogRollups();
+        rollups.add(movie(1, "1995-10-30", "en", 100, 90, "[{\"id\": 28, \"name\": \"Action\"}, {\"id\": 35, \"name\": \"Comedy\"}]"));
+        rollups.add(movie(2, "1995-12-15", "fr", 300, 110, "[{\"id\": 28, \"name\": \"Action\"}]"));
+        rollups.add(movie(3, "1999-03-31", "en", 500, 130, "[{\"id\": 35, \"name\": \"Comedy\"}]"));
+    }
+
+    @Test
+    void testQuery_NoGrouping() {
+        // Act
+        List<MovieStats> stats = rollups.query(Set.of(), null, null, null);
+
+        // Assert
+        assertEquals(1, stats.size());
+        assertEquals(3, stats.get(0).getCount());
+        assertEquals(900, stats.get(0).getTotalBudget());
+        assertEquals(300.0, stats.get(0).getAverageBudget());
+        assertEquals(110.0, stats.get(0).getAverageRuntime());
+        assertNull(stats.get(0).getYear());
+    }
+
+    @Test
+    void testQuery_GroupByYear() {
+        // Act
+        List<MovieStats> stats = rollups.query(EnumSet.of(Dimension.YEAR), null, null, null);
+
+        // Assert
+        assertEquals(2, stats.size());
+        assertEquals(1995, stats.get(0).getYear());
+        assertEquals(2, stats.get(0).getCount());
+        assertEquals(1999, stats.get(1).getYear());
+        assertEquals(1, stats.get(1).getCount());
+    }
+
+    @Test
+    void testQuery_GroupByGenreCountsEachGenreOfAMovie() {
+        // Act
+        List<MovieStats> stats = rollups.query(EnumSet.of(Dimension.GENRE), null, null, null);
+
+        // Assert
+        assertEquals(2, stats.size());
+        assertEquals("Action", stats.get(0).getGenre());
+        assertEquals(2, stats.get(0).getCount());
+        assertEquals("Comedy", stats.get(1).getGenre());
+        assertEquals(2, stats.get(1).getCount());
+    }
+
+    @Test
+    void testQuery_FullyFilteredLookup() {
+        // Act
+        List<MovieStats> stats = rollups.query(Set.of(), 1995, "Action", "en");
+
+        // Assert
+        assertEquals(1, stats.size());
+        assertEquals(1, stats.get(0).getCount());
+        assertEquals(100, stats.get(0).getTotalBudget());
+    }
+
+    @Test
+    void testQuery_FilterWithGrouping() {
+        // Act
+        List<MovieStats> stats = rollups.query(EnumSet.of(Dimension.LANGUAGE), 1995, null, null);
+
+        // Assert
+        assertEquals(2, stats.size());
+        assertEquals("en", stats.get(0).getLanguage());
+        assertEquals("fr", stats.get(1).getLanguage());
+    }
+
+    @Test
+    void testRemove_UpdatesAndDropsEmptyGroups() {
+        // Act
+        rollups.remove(movie(3, "1999-03-31", "en", 500, 130, "[{\"id\": 35, \"name\": \"Comedy\"}]"));
+
+        // Assert
+        assertTrue(rollups.query(Set.of(), 1999, null, null).isEmpty());
+        assertEquals(2, rollups.query(Set.of(), null, null, null).get(0).getCount());
+        assertEquals(100.0, rollups.query(Set.of(), null, null, null).get(0).getAverageRuntime());
+    }
+
+    @Test
+    void testQuery_GroupedViewFollowsAddsAndRemoves() {
+        // Arrange
+        MovieEntity german = movie(4, "1995-01-01", "de", 50, 95, "[{\"id\": 28, \"name\": \"Action\"}]");
+
+        // Act
+        rollups.add(german);
+        List<MovieStats> added = rollups.query(EnumSet.of(Dimension.LANGUAGE), 1995, "Action", null);
+        rollups.remove(german);
+        List<MovieStats> removed = rollups.query(EnumSet.of(Dimension.LANGUAGE), 1995, "Action", null);
+
+        // Assert
+        assertEquals(List.of("de", "en", "fr"), added.stream().map(MovieStats::getLanguage).toList());
+        assertEquals(List.of("en", "fr"), removed.stream().map(MovieStats::getLanguage).toList());
+    }
+
+    @Test
+    void testRemove_DoubleSumsDoNotDrift() {
+        // Arrange
+        MovieEntity blockbuster = movie(4, "1995-01-01", "en", 0, 0, "[]");
+        blockbuster.setRevenue(1e16);
+        MovieEntity small = movie(5, "1995-01-01", "en", 0, 0, "[]");
+        small.setRevenue(1.0);
+        rollups.add(blockbuster);
+        rollups.add(small);
+
+        // Act
+        rollups.remove(blockbuster);
+
+        // Assert
+        assertEquals(1.0, rollups.query(Set.of(), null, null, null).get(0).getTotalRevenue());
+    }
+
+    private static MovieEntity movie(int id, String releaseDate, String language, long budget, double runtime, String genres) {
+        MovieEntity movie = new MovieEntity();
+        movie.setMovieId(id);
+        movie.setTitle("Movie " + id);
+        movie.setReleaseDate(releaseDate);
+        movie.setLanguage(language);
+        movie.setBudget(budget);
+        movie.setRuntime(runtime);
+        movie.setGenres(genres);
+        return movie;
+    }
+}
@@ -0,0 +1,93 @@
+package com.aetna.movies.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.aetna.movies.entity.MovieEntity;
+
+class CatalogSimilarityTest {
+
+    private static final String ACTION_THRILLER =
+            "[{\"id\": 28, \"name\": \"Action\"}, {\"id\": 53, \"name\": \"Thriller\"}]";
+    private static final String ACTION = "[{\"id\": 28, \"name\": \"Action\"}]";
+    private static final String COMEDY = "[{\"id\": 35, \"name\": \"Comedy\"}]";
+
+    private CatalogSimilarity similarity;
+
+    @BeforeEach
+    void setUp() {
+        similarity = new CatalogSimilarity();
+        similarity.add(movie(1, "1995-12-15", "en", ACTION_THRILLER));
+        similarity.add(movie(2, "1996-05-20", "en", ACTION_THRILLER));
+        similarity.add(movie(3, "1995-07-19", "fr", COMEDY));
+        similarity.add(movie(4, "1960-01-01", "en", ACTION));
+        similarity.seal();
+    }
+
+    @Test
+    void testSimilar_RankedByScore() {
+        // Act & Assert
+        assertArrayEquals(new int[] {2, 4, 3}, similarity.similar(1, 10));
+        assertArrayEquals(new int[] {2}, similarity.similar(1, 1));
+    }
+
+    @Test
+    void testSimilar_UnknownMovie() {
+        // Act & Assert
+        assertEquals(0, similarity.similar(99, 10).length);
+    }
+
+    @Test
+    void testSimilar_ReflectsIncrementalChanges() {
+        // Act
+        similarity.add(movie(5, "1995-12-15", "en", ACTION_THRILLER));
+        similarity.remove(movie(2, "1996-05-20", "en", ACTION_THRILLER));
+
+        // Assert
+        assertArrayEquals(new int[] {5, 4, 3}, similarity.similar(1, 10));
+        assertEquals(0, similarity.similar(2, 10).length);
+    }
+
+    @Test
+    void testSimilar_CandidatesBoundedToNearestYears() {
+        // Arrange
+        for (int id = 100; id < 100 + CatalogSimilarity.MAX_CANDIDATES + 50; id++) {
+            similarity.add(movie(id, "1900-01-01", "fr", COMEDY));
+        }
+        similarity.add(movie(50, "1994-01-01", "de", COMEDY));
+
+        // Act
+        int[] similar = similarity.similar(3, CatalogSimilarity.MAX_NEIGHBORS);
+
+        // Assert
+        assertEquals(50, similar[0]);
+        assertEquals(CatalogSimilarity.MAX_NEIGHBORS, similar.length);
+    }
+
+    @Test
+    void testSimilar_CandidateCutKeepsLowestIds() {
+        // Arrange
+        for (int id = 1000; id < 1000 + CatalogSimilarity.MAX_CANDIDATES + 100; id++) {
+            similarity.add(movie(id, "1995-01-01", "fr", COMEDY));
+        }
+        int[] expected = new int[CatalogSimilarity.MAX_NEIGHBORS];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = 1000 + i;
+        }
+
+        // Act & Assert
+        assertArrayEquals(expected, similarity.similar(3, CatalogSimilarity.MAX_NEIGHBORS));
+    }
+
+    private static MovieEntity movie(int id, String releaseDate, String language, String genres) {
+        MovieEntity movie = new MovieEntity();
+        movie.setMovieId(id);
+        movie.setTitle("Movie " + id);
+        movie.setReleaseDate(releaseDate);
+        movie.setLanguage(language);
+        movie.setGenres(genres);
+        return movie;
+    }
+}
@@ -0,0 +1,84 @@
+package com.aetna.movies.catalog;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.aetna.movies.catalog.CatalogTopN.Metric;
+import com.aetna.movies.entity.MovieEntity;
+
+class CatalogTopNTest {
+
+    private CatalogTopN topN;
+
+    @BeforeEach
+    void setUp() {
+        topN = new CatalogTopN();
+        topN.add(movie(1, "1995-10-30", 300, 100, "[{\"id\": 28, \"name\": \"Action\"}]"));
+        topN.add(movie(2, "1995-12-15", 500, 90, "[{\"id\": 35, \"name\": \"Comedy\"}]"));
+        topN.add(movie(3, "1999-03-31", 900, 120, "[{\"id\": 28, \"name\": \"Action\"}]"));
+        topN.add(movie(4, "1995-05-01", 700, 140, "[{\"id\": 28, \"name\": \"Action\"}]"));
+        topN.seal();
+    }
+
+    @Test
+    void testTop_AllMoviesByRevenue() {
+        // Act
+        List<MovieEntity> top = topN.top(Metric.REVENUE, null, null, 2);
+
+        // Assert
+        assertEquals(List.of(3, 4), ids(top));
+    }
+
+    @Test
+    void testTop_ByYearAndGenre() {
+        // Act
+        List<MovieEntity> top = topN.top(Metric.REVENUE, 1995, "Action", 10);
+
+        // Assert
+        assertEquals(List.of(4, 1), ids(top));
+    }
+
+    @Test
+    void testTop_ByRuntimeForGenre() {
+        // Act
+        List<MovieEntity> top = topN.top(Metric.RUNTIME, null, "Action", 10);
+
+        // Assert
+        assertEquals(List.of(4, 3, 1), ids(top));
+    }
+
+    @Test
+    void testTop_UnknownBucket() {
+        // Act & Assert
+        assertTrue(topN.top(Metric.REVENUE, 2020, null, 10).isEmpty());
+    }
+
+    @Test
+    void testTop_ReflectsIncrementalChanges() {
+        // Act
+        topN.remove(movie(3, "1999-03-31", 900, 120, "[{\"id\": 28, \"name\": \"Action\"}]"));
+        topN.add(movie(5, "1995-07-07", 1000, 95, "[{\"id\": 35, \"name\": \"Comedy\"}]"));
+
+        // Assert
+        assertEquals(List.of(5, 4, 2), ids(topN.top(Metric.REVENUE, null, null, 3)));
+    }
+
+    private static List<Integer> ids(List<MovieEntity> movies) {
+        return movies.stream().map(MovieEntity::getMovieId).toList();
+    }
+
+    private static MovieEntity movie(int id, String releaseDate, double revenue, double runtime, String genres) {
+        MovieEntity movie = new MovieEntity();
+        movie.setMovieId(id);
+        movie.setTitle("Movie " + id);
+        movie.setReleaseDate(releaseDate);
+        movie.setRevenue(revenue);
+        movie.setRuntime(runtime);
+        movie.setGenres(genres);
+        return movie;
+    }
+}
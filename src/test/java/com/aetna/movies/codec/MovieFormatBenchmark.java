@@ -0,0 +1,124 @@
+package com.aetna.movies.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.aetna.movies.dto.Movie;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+// Not a test: run with ./gradlew formatBenchmark. Encodes and decodes the same Movie lists in every
+// response format and prints payload size and mean time per list after a warm-up.
+public final class MovieFormatBenchmark {
+
+    private static final TypeReference<List<Movie>> MOVIE_LIST = new TypeReference<>() {
+    };
+    private static final String[] GENRES = { "Action", "Adventure", "Comedy", "Crime", "Drama", "Horror",
+        "Romance", "Science Fiction", "Thriller" };
+
+    private MovieFormatBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int moviesPerList = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        List<Movie> movies = movies(moviesPerList);
+
+        MovieProtobuf protobuf = new MovieProtobuf();
+        List<Format> formats = List.of(
+                jackson("json", new ObjectMapper()),
+                jackson("smile", new SmileMapper()),
+                jackson("cbor", new CBORMapper()),
+                new Format("protobuf", protobuf::writeList, protobuf::readList));
+
+        System.out.printf("%d movies per list, %d iterations%n", moviesPerList, iterations);
+        System.out.printf("%-10s %10s %14s %14s%n", "format", "bytes", "encode (us)", "decode (us)");
+        for (Format format : formats) {
+            byte[] payload = format.encode(movies);
+            if (!movies.equals(format.decode(payload))) {
+                throw new IllegalStateException(format.name() + " did not round-trip");
+            }
+            run(format, movies, iterations / 10);
+            double[] micros = run(format, movies, iterations);
+            System.out.printf("%-10s %10d %14.1f %14.1f%n", format.name(), payload.length, micros[0], micros[1]);
+        }
+    }
+
+    // Mean encode and decode time in microseconds
+    private static double[] run(Format format, List<Movie> movies, int iterations) throws IOException {
+        long encodeNanos = 0;
+        long decodeNanos = 0;
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            byte[] payload = format.encode(movies);
+            long encoded = System.nanoTime();
+            sink += format.decode(payload).size();
+            encodeNanos += encoded - start;
+            decodeNanos += System.nanoTime() - encoded;
+        }
+        if (sink != (long) iterations * movies.size()) {
+            throw new IllegalStateException(format.name() + " lost movies");
+        }
+        return new double[] { encodeNanos / 1_000.0 / iterations, decodeNanos / 1_000.0 / iterations };
+    }
+
+    private static List<Movie> movies(int count) {
+        Random random = new Random(42);
+        List<Movie> movies = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            movies.add(Movie.builder()
+                    .movieId(i)
+                    .imdbId(String.format("tt%07d", random.nextInt(10_000_000)))
+                    .title("Movie " + i)
+                    .overview("A story about movie number " + i + " that runs long enough to resemble a real "
+                            + "overview, with characters, a setting and a plot twist near the end.")
+                    .productionCompanies("[{\"name\": \"Studio " + random.nextInt(50) + "\", \"id\": " + i + "}]")
+                    .releaseDate((1950 + random.nextInt(70)) + "-0" + (1 + random.nextInt(9)) + "-15")
+                    .movieRating(Math.round(random.nextDouble() * 50) / 10.0)
+                    .budget("$" + (random.nextInt(200) * 1_000_000L))
+                    .revenue(random.nextInt(1_000_000_000))
+                    .runtime(80 + random.nextInt(100))
+                    .language("en")
+                    .genres(List.of(GENRES[random.nextInt(GENRES.length)], GENRES[random.nextInt(GENRES.length)]))
+                    .build());
+        }
+        return movies;
+    }
+
+    private static Format jackson(String name, ObjectMapper mapper) {
+        return new Format(name, (movies, output) -> mapper.writeValue(output, movies),
+                input -> mapper.readValue(input, MOVIE_LIST));
+    }
+
+    private record Format(String name, Encoder encoder, Decoder decoder) {
+
+        private byte[] encode(List<Movie> movies) throws IOException {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            encoder.encode(movies, output);
+            return output.toByteArray();
+        }
+
+        private List<Movie> decode(byte[] payload) throws IOException {
+            return decoder.decode(new ByteArrayInputStream(payload));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Encoder {
+        void encode(List<Movie> movies, OutputStream output) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Decoder {
+        List<Movie> decode(InputStream input) throws IOException;
+    }
+}
@@ -0,0 +1,57 @@
+package com.aetna.movies.codec;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.aetna.movies.dto.Movie;
+import com.aetna.movies.dto.MovieStats;
+
+class ProtobufMovieHttpMessageConverterTest {
+
+    private static final Type MOVIE_LIST = new ParameterizedTypeReference<List<Movie>>() {
+    }.getType();
+
+    private final ProtobufMovieHttpMessageConverter converter =
+            new ProtobufMovieHttpMessageConverter(new MovieProtobuf());
+
+    @Test
+    void testWrite_MovieListRoundTrips() throws Exception {
+        // Arrange
+        List<Movie> movies = List.of(
+                Movie.builder().movieId(1).title("Heat").releaseDate("1995-12-15").movieRating(4.5)
+                        .revenue(187436818).runtime(170).genres(List.of("Action", "Crime", "Drama")).build(),
+                Movie.builder().movieId(2).title("Alien").genres(List.of()).build());
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        // Act
+        converter.write(movies, MOVIE_LIST, MovieProtobuf.MEDIA_TYPE, output);
+        Object read = converter.read(MOVIE_LIST, null, new MockHttpInputMessage(output.getBodyAsBytes()));
+
+        // Assert
+        assertEquals(MovieProtobuf.MEDIA_TYPE, output.getHeaders().getContentType());
+        assertEquals(movies.get(0), ((List<?>) read).get(0));
+        assertEquals("Alien", ((Movie) ((List<?>) read).get(1)).getTitle());
+    }
+
+    @Test
+    void testCanWrite_OnlyMoviesAsProtobuf() {
+        // Arrange
+        Type statsList = new ParameterizedTypeReference<List<MovieStats>>() {
+        }.getType();
+
+        // Act & Assert
+        assertTrue(converter.canWrite(MOVIE_LIST, List.class, MovieProtobuf.MEDIA_TYPE));
+        assertTrue(converter.canWrite(Movie.class, Movie.class, MovieProtobuf.MEDIA_TYPE));
+        assertFalse(converter.canWrite(statsList, List.class, MovieProtobuf.MEDIA_TYPE));
+        assertFalse(converter.canWrite(MOVIE_LIST, List.class, MediaType.APPLICATION_JSON));
+    }
+}
@@ -0,0 +1,64 @@
+package com.aetna.movies.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+class RequestContextTest {
+
+    @AfterEach
+    void tearDown() {
+        ClientRefIdHolder.clear();
+        RequestContextHolder.clear();
+        MDC.clear();
+    }
+
+    @Test
+    void testWrap_PropagatesContextToAnotherThread() throws Exception {
+        // Arrange
+        ClientRefIdHolder.setClientRefId("client-1");
+        RequestContextHolder.setEndpoint("getAllMovies");
+        AtomicReference<String> clientRefId = new AtomicReference<>();
+        AtomicReference<String> endpoint = new AtomicReference<>();
+        AtomicReference<String> mdcClientRefId = new AtomicReference<>();
+        Runnable task = RequestContext.capture().wrap(() -> {
+            clientRefId.set(ClientRefIdHolder.getClientRefId());
+            endpoint.set(RequestContextHolder.getEndpoint());
+            mdcClientRefId.set(MDC.get("clientRefId"));
+        });
+
+        // Act
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(task).get();
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert
+        assertEquals("client-1", clientRefId.get());
+        assertEquals("getAllMovies", endpoint.get());
+        assertEquals("client-1", mdcClientRefId.get());
+    }
+
+    @Test
+    void testWrap_RestoresPreviousContext() {
+        // Arrange
+        Runnable task = new RequestContext("client-2", "getMovieById", null, null, null).wrap(() -> {
+            assertEquals("client-2", ClientRefIdHolder.getClientRefId());
+        });
+
+        // Act
+        task.run();
+
+        // Assert
+        assertNull(ClientRefIdHolder.getClientRefId());
+        assertNull(RequestContextHolder.getEndpoint());
+    }
+}
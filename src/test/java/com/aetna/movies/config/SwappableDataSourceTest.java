@@ -0,0 +1,35 @@
+package com.aetna.movies.config;
+
+import java.sql.Connection;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SwappableDataSourceTest {
+
+    @Test
+    void testSwap_RoutesNewConnectionsToNextTarget() throws Exception {
+        // Arrange
+        DataSource first = mock(DataSource.class);
+        DataSource second = mock(DataSource.class);
+        Connection firstConnection = mock(Connection.class);
+        Connection secondConnection = mock(Connection.class);
+        when(first.getConnection()).thenReturn(firstConnection);
+        when(second.getConnection()).thenReturn(secondConnection);
+        SwappableDataSource dataSource = new SwappableDataSource(first);
+        Connection held = dataSource.getConnection();
+
+        // Act
+        DataSource previous = dataSource.swap(second);
+
+        // Assert
+        assertSame(first, previous);
+        assertSame(firstConnection, held);
+        assertSame(secondConnection, dataSource.getConnection());
+        assertSame(dataSource, dataSource.unwrap(SwappableDataSource.class));
+    }
+}
@@ -1,28 +1,51 @@
 package com.aetna.movies.controller;
 
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import com.aetna.movies.catalog.CatalogRollups;
 import com.aetna.movies.dto.Movie;
+import com.aetna.movies.dto.MovieChange;
+import com.aetna.movies.dto.MovieFilter;
+import com.aetna.movies.dto.MovieStats;
+import com.aetna.movies.dto.Rating;
 import com.aetna.movies.exception.GlobalExceptionHandler;
 import com.aetna.movies.exception.MoviesServiceException;
 import com.aetna.movies.exception.ResourceNotFoundException;
+import com.aetna.movies.repository.MovieSort;
 import com.aetna.movies.service.MoviesService;
+import com.aetna.movies.service.MoviesService.RatingsDefault;
 
 class MoviesControllerTest {
 
@@ -48,7 +71,7 @@ class MoviesControllerTest {
         Movie movie = new Movie();
         movie.setMovieId(1);
         movie.setTitle("Test Movie");
-        when(moviesService.getAllMovies(1, 50)).thenReturn(List.of(movie));
+        when(moviesService.getAllMovies(1, 50, MovieSort.DEFAULT, null)).thenReturn(List.of(movie));
 
         // Act & Assert
         mockMvc.perform(get("/api/v1/movies/")
@@ -59,13 +82,13 @@ class MoviesControllerTest {
                 .andExpect(jsonPath("$.size()").value(1))
                 .andExpect(jsonPath("$[0].title").value("Test Movie"));
 
-        verify(moviesService, times(1)).getAllMovies(1, 50);
+        verify(moviesService, times(1)).getAllMovies(1, 50, MovieSort.DEFAULT, null);
     }
 
     @Test
     void testGetAllMovies_NotFound() throws Exception {
         // Arrange
-        when(moviesService.getAllMovies(1, 50)).thenReturn(Collections.emptyList());
+        when(moviesService.getAllMovies(1, 50, MovieSort.DEFAULT, null)).thenReturn(Collections.emptyList());
 
         // Act & Assert
         mockMvc.perform(get("/api/v1/movies/")
@@ -74,7 +97,7 @@ class MoviesControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
 
-        verify(moviesService, times(1)).getAllMovies(1, 50);
+        verify(moviesService, times(1)).getAllMovies(1, 50, MovieSort.DEFAULT, null);
     }
 
     @Test
@@ -83,7 +106,7 @@ class MoviesControllerTest {
         Movie movie = new Movie();
         movie.setMovieId(1);
         movie.setTitle("Test Movie");
-        when(moviesService.getMovieDetails(1)).thenReturn(movie);
+        when(moviesService.getMovieDetails(1, null)).thenReturn(movie);
 
         // Act & Assert
         mockMvc.perform(get("/api/v1/movies/1")
@@ -91,20 +114,20 @@ class MoviesControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.title").value("Test Movie"));
 
-        verify(moviesService, times(1)).getMovieDetails(1);
+        verify(moviesService, times(1)).getMovieDetails(1, null);
     }
 
     @Test
     void testGetMovieDetails_NotFound() throws Exception {
         // Arrange
-        when(moviesService.getMovieDetails(1)).thenThrow(new ResourceNotFoundException("Movie not found"));
+        when(moviesService.getMovieDetails(1, null)).thenThrow(new ResourceNotFoundException("Movie not found"));
 
         // Act & Assert
         mockMvc.perform(get("/api/v1/movies/1")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
 
-        verify(moviesService, times(1)).getMovieDetails(1);
+        verify(moviesService, times(1)).getMovieDetails(1, null);
     }
 
     @Test
@@ -113,7 +136,7 @@ class MoviesControllerTest {
         Movie movie = new Movie();
         movie.setMovieId(1);
         movie.setTitle("Test Movie");
-        when(moviesService.getAllMoviesByYear(2022, 1, 50)).thenReturn(List.of(movie));
+        when(moviesService.getAllMoviesByYear(2022, 1, 50, MovieSort.DEFAULT, null)).thenReturn(List.of(movie));
 
         // Act & Assert
         mockMvc.perform(get("/api/v1/movies/year/2022")
@@ -124,7 +147,70 @@ class MoviesControllerTest {
                 .andExpect(jsonPath("$.size()").value(1))
                 .andExpect(jsonPath("$[0].title").value("Test Movie"));
 
-        verify(moviesService, times(1)).getAllMoviesByYear(2022, 1, 50);
+        verify(moviesService, times(1)).getAllMoviesByYear(2022, 1, 50, MovieSort.DEFAULT, null);
+    }
+
+    @Test
+    void testGetMoviesByYear_IncludeRatings() throws Exception {
+        // Arrange
+        Movie movie = new Movie();
+        movie.setMovieId(1);
+        movie.setMovieRating(4.5);
+        when(moviesService.getAllMoviesByYear(2022, 0, 10, MovieSort.DEFAULT, true)).thenReturn(List.of(movie));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/movies/year/2022").param("include", "ratings"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].movieRating").value(4.5));
+
+        verify(moviesService, times(1)).getAllMoviesByYear(2022, 0, 10, MovieSort.DEFAULT, true);
+    }
+
+    @Test
+    void testGetAllMovies_EmptyIncludeSkipsRatings() throws Exception {
+        // Arrange
+        Movie movie = new Movie();
+        movie.setMovieId(1);
+        when(moviesService.getAllMovies(1, 50, MovieSort.DEFAULT, false)).thenReturn(List.of(movie));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/movies/").param("include", ""))
+                .andExpect(status().isOk());
+
+        verify(moviesService, times(1)).getAllMovies(1, 50, MovieSort.DEFAULT, false);
+    }
+
+    @Test
+    void testGetAllMovies_SortParameter() throws Exception {
+        // Arrange
+        Movie movie = new Movie();
+        movie.setMovieId(1);
+        Sort sort = Sort.by(Sort.Direction.DESC, "revenue", "movieId");
+        when(moviesService.getAllMovies(1, 50, sort, null)).thenReturn(List.of(movie));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/movies/").param("sort", "revenue,desc"))
+                .andExpect(status().isOk());
+
+        verify(moviesService, times(1)).getAllMovies(1, 50, sort, null);
+    }
+
+    @Test
+    void testGetAllMovies_InvalidSort() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/movies/").param("sort", "overview"))
+                .andExpect(status().isBadRequest());
+
+        verify(moviesService, never()).getAllMovies(any(Integer.class), any(Integer.class), any(), any());
+    }
+
+    @Test
+    void testGetMovieById_InvalidInclude() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/movies/1").param("include", "cast"))
+                .andExpect(status().isBadRequest());
+
+        verify(moviesService, never()).getMovieDetails(any(Integer.class), any());
     }
 
     @Test
@@ -133,7 +219,7 @@ class MoviesControllerTest {
         Movie movie = new Movie();
         movie.setMovieId(1);
         movie.setTitle("Test Movie");
-        when(moviesService.getAllMoviesByGenre("Action", 1, 50)).thenReturn(List.of(movie));
+        when(moviesService.getAllMoviesByGenre("Action", 1, 50, MovieSort.DEFAULT, null)).thenReturn(List.of(movie));
 
         // Act & Assert
         mockMvc.perform(get("/api/v1/movies/genre/Action")
@@ -144,13 +230,13 @@ class MoviesControllerTest {
                 .andExpect(jsonPath("$.size()").value(1))
                 .andExpect(jsonPath("$[0].title").value("Test Movie"));
 
-        verify(moviesService, times(1)).getAllMoviesByGenre("Action", 1, 50);
+        verify(moviesService, times(1)).getAllMoviesByGenre("Action", 1, 50, MovieSort.DEFAULT, null);
     }
 
     @Test
     void testGetMoviesByGenre_NotFound() throws Exception {
         // Arrange
-        when(moviesService.getAllMoviesByGenre("Action", 1, 50)).thenReturn(Collections.emptyList());
+        when(moviesService.getAllMoviesByGenre("Action", 1, 50, MovieSort.DEFAULT, null)).thenReturn(Collections.emptyList());
 
         // Act & Assert
         mockMvc.perform(get("/api/v1/movies/genre/Action")
@@ -159,13 +245,13 @@ class MoviesControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
 
-        verify(moviesService, times(1)).getAllMoviesByGenre("Action", 1, 50);
+        verify(moviesService, times(1)).getAllMoviesByGenre("Action", 1, 50, MovieSort.DEFAULT, null);
     }
 
     @Test
     void testGetAllMovies_ServiceException() throws Exception {
         // Arrange
-        when(moviesService.getAllMovies(1, 50)).thenThrow(new MoviesServiceException("Database error"));
+        when(moviesService.getAllMovies(1, 50, MovieSort.DEFAULT, null)).thenThrow(new MoviesServiceException("Database error"));
 
         // Act & Assert
         mockMvc.perform(get("/api/v1/movies/")
@@ -175,7 +261,7 @@ class MoviesControllerTest {
                 .andExpect(status().isInternalServerError())
                 .andExpect(jsonPath("$.message").value("Database error"));
 
-        verify(moviesService, times(1)).getAllMovies(1, 50);
+        verify(moviesService, times(1)).getAllMovies(1, 50, MovieSort.DEFAULT, null);
     }
 
     @Test
@@ -191,7 +277,7 @@ class MoviesControllerTest {
     @Test
     void testGetMoviesByYear_NotFound() throws Exception {
         // Arrange
-        when(moviesService.getAllMoviesByYear(2022, 1, 50)).thenReturn(Collections.emptyList());
+        when(moviesService.getAllMoviesByYear(2022, 1, 50, MovieSort.DEFAULT, null)).thenReturn(Collections.emptyList());
 
         // Act & Assert
         mockMvc.perform(get("/api/v1/movies/year/2022")
@@ -200,13 +286,13 @@ class MoviesControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
 
-        verify(moviesService, times(1)).getAllMoviesByYear(2022, 1, 50);
+        verify(moviesService, times(1)).getAllMoviesByYear(2022, 1, 50, MovieSort.DEFAULT, null);
     }
 
     @Test
     void testGetMoviesByYear_ServiceException() throws Exception {
         // Arrange
-        when(moviesService.getAllMoviesByYear(2022, 1, 50)).thenThrow(new MoviesServiceException("Database error"));
+        when(moviesService.getAllMoviesByYear(2022, 1, 50, MovieSort.DEFAULT, null)).thenThrow(new MoviesServiceException("Database error"));
 
         // Act & Assert
         mockMvc.perform(get("/api/v1/movies/year/2022")
@@ -216,7 +302,7 @@ class MoviesControllerTest {
                 .andExpect(status().isInternalServerError())
                 .andExpect(jsonPath("$.message").value("Database error"));
 
-        verify(moviesService, times(1)).getAllMoviesByYear(2022, 1, 50);
+        verify(moviesService, times(1)).getAllMoviesByYear(2022, 1, 50, MovieSort.DEFAULT, null);
     }
 
     @Test
@@ -243,7 +329,7 @@ class MoviesControllerTest {
     @Test
     void testGetMoviesByGenre_ServiceException() throws Exception {
         // Arrange
-        when(moviesService.getAllMoviesByGenre("Action", 1, 50)).thenThrow(new MoviesServiceException("Database error"));
+        when(moviesService.getAllMoviesByGenre("Action", 1, 50, MovieSort.DEFAULT, null)).thenThrow(new MoviesServiceException("Database error"));
 
         // Act & Assert
         mockMvc.perform(get("/api/v1/movies/genre/Action")
@@ -253,7 +339,7 @@ class MoviesControllerTest {
                 .andExpect(status().isInternalServerError())
                 .andExpect(jsonPath("$.message").value("Database error"));
 
-        verify(moviesService, times(1)).getAllMoviesByGenre("Action", 1, 50);
+        verify(moviesService, times(1)).getAllMoviesByGenre("Action", 1, 50, MovieSort.DEFAULT, null);
     }
 
     @Test
@@ -265,4 +351,198 @@ class MoviesControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetCatalogStats_Success() throws Exception {
+        // Arrange
+        MovieStats stats = MovieStats.builder().year(1995).count(2).build();
+        when(moviesService.getCatalogStats(EnumSet.of(CatalogRollups.Dimension.YEAR), null, "Action", null))
+                .thenReturn(List.of(stats));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/movies/stats")
+                        .param("groupBy", "year")
+                        .param("genre", "Action")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].year").value(1995))
+                .andExpect(jsonPath("$[0].count").value(2));
+
+        verify(moviesService, times(1)).getCatalogStats(EnumSet.of(CatalogRollups.Dimension.YEAR), null, "Action", null);
+    }
+
+    @Test
+    void testGetCatalogStats_InvalidDimension() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/movies/stats")
+                        .param("groupBy", "director")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid groupBy dimension: director"));
+    }
+
+    @Test
+    void testGetSimilarMovies_Success() throws Exception {
+        // Arrange
+        Movie movie = new Movie();
+        movie.setMovieId(2);
+        movie.setTitle("Similar Movie");
+        when(moviesService.getSimilarMovies(1, 5)).thenReturn(List.of(movie));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/movies/1/similar")
+                        .param("n", "5")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].movieId").value(2));
+
+        verify(moviesService, times(1)).getSimilarMovies(1, 5);
+    }
+
+    @Test
+    void testGetSimilarMovies_UnknownMovie() throws Exception {
+        // Arrange
+        when(moviesService.getSimilarMovies(99, 10)).thenReturn(null);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/movies/99/similar")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testQueryMovies_Success() throws Exception {
+        // Arrange
+        Movie movie = new Movie();
+        movie.setMovieId(1);
+        movie.setTitle("Test Movie");
+        when(moviesService.queryMovies(any(MovieFilter.class), eq(0), eq(50))).thenReturn(List.of(movie));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/movies/query")
+                        .content("{\"genre\": \"Action\", \"or\": [{\"language\": \"en\"}, {\"language\": \"fr\"}]}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].movieId").value(1));
+
+        verify(moviesService, times(1)).queryMovies(any(MovieFilter.class), eq(0), eq(50));
+    }
+
+    @Test
+    void testQueryMovies_InvalidRange() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/movies/query")
+                        .content("{\"and\": [{\"yearFrom\": 2000, \"yearTo\": 1990}]}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid year range: 2000 is greater than 1990"));
+
+        verify(moviesService, never()).queryMovies(any(MovieFilter.class), eq(0), eq(50));
+    }
+
+    @Test
+    void testGetChanges_StreamsOneLinePerChange() throws Exception {
+        // Arrange
+        Movie movie = new Movie();
+        movie.setMovieId(7);
+        doAnswer(invocation -> {
+            Consumer<MovieChange> consumer = invocation.getArgument(1);
+            consumer.accept(new MovieChange(42, movie));
+            return null;
+        }).when(moviesService).streamChanges(eq(41L), any());
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/v1/movies/changes").param("since", "41"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(startsWith("{\"changeVersion\":42,\"movie\":{\"movieId\":7")))
+                .andExpect(content().string(endsWith("}\n")));
+    }
+
+    @Test
+    void testStreamMoviesByGenre_MoviesThenRatings() throws Exception {
+        // Arrange
+        Movie movie = new Movie();
+        movie.setMovieId(7);
+        movie.setTitle("Heat");
+        Rating rating = new Rating();
+        rating.setMovieId(7);
+        rating.setRating(4.5);
+        when(moviesService.getAllMoviesByGenre("Action", 1, 50, MovieSort.DEFAULT, false)).thenReturn(List.of(movie));
+        when(moviesService.includeRatings(RatingsDefault.GENRE, null)).thenReturn(true);
+        when(moviesService.getRatings(List.of(movie))).thenReturn(List.of(rating));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/v1/movies/genre/Action").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(startsWith("event: movies\ndata: [{\"movieId\":7,")))
+                .andExpect(content().string(containsString("event: ratings\ndata: [{\"movieId\":7,\"rating\":4.5}]\n\n")))
+                .andExpect(content().string(endsWith("event: done\ndata: {}\n\n")));
+    }
+
+    @Test
+    void testStreamAllMovies_EmptyIncludeSkipsRatings() throws Exception {
+        // Arrange
+        Movie movie = new Movie();
+        movie.setMovieId(7);
+        when(moviesService.getAllMovies(1, 50, MovieSort.DEFAULT, false)).thenReturn(List.of(movie));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/v1/movies/").param("include", "")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(not(containsString("event: ratings"))));
+        verify(moviesService, never()).getRatings(any());
+    }
+
+    @Test
+    void testStreamMoviesByYear_DefaultWithoutRatings() throws Exception {
+        // Arrange
+        Movie movie = new Movie();
+        movie.setMovieId(7);
+        when(moviesService.getAllMoviesByYear(1995, 0, 10, MovieSort.DEFAULT, false)).thenReturn(List.of(movie));
+        when(moviesService.includeRatings(RatingsDefault.YEAR, null)).thenReturn(false);
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/v1/movies/year/1995").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(not(containsString("event: ratings"))));
+        verify(moviesService, never()).getRatings(any());
+    }
+
+    @Test
+    void testStreamMoviesByGenre_NotFoundAsErrorEvent() throws Exception {
+        // Arrange
+        when(moviesService.getAllMoviesByGenre("Action", 1, 50, MovieSort.DEFAULT, false))
+                .thenReturn(Collections.emptyList());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/movies/genre/Action").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(startsWith("event: error\ndata: {")))
+                .andExpect(content().string(containsString("\"statusCode\":404")))
+                .andExpect(content().string(endsWith("}\n\n")));
+    }
+}
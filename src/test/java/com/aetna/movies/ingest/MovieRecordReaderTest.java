@@ -0,0 +1,52 @@
+package com.aetna.movies.ingest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import com.aetna.movies.entity.MovieEntity;
+
+class MovieRecordReaderTest {
+
+    @Test
+    void testNext_CsvWithQuotedFieldsAndGenreNames() throws Exception {
+        // Arrange
+        String csv = "movieId,imdbId,title,budget,genres\r\n"
+                + "1,tt0113277,\"Heat, \"\"the\"\" movie\",60000000,action|Crime\r\n";
+        MovieRecordReader reader = reader(csv, ImportFormat.CSV);
+
+        // Act
+        MovieEntity movie = reader.next();
+
+        // Assert
+        assertEquals(1, movie.getMovieId());
+        assertEquals("Heat, \"the\" movie", movie.getTitle());
+        assertEquals(60000000L, movie.getBudget());
+        assertEquals("[{\"id\": 28, \"name\": \"Action\"}, {\"id\": 80, \"name\": \"Crime\"}]", movie.getGenres());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void testNext_JsonLinesSkipsRejectedRecord() throws Exception {
+        // Arrange
+        String jsonl = "{\"movieId\": 5, \"imdbId\": \"tt5\", \"title\": \"Unknown\", \"genres\": [\"Cowboy\"]}\n"
+                + "{\"movieId\": 6, \"imdbId\": \"tt6\", \"title\": \"War Story\", \"genres\": [{\"id\": 10752}]}\n";
+        MovieRecordReader reader = reader(jsonl, ImportFormat.JSONL);
+
+        // Act & Assert
+        IllegalArgumentException rejected = assertThrows(IllegalArgumentException.class, reader::next);
+        assertEquals("Unknown genre: Cowboy", rejected.getMessage());
+        MovieEntity movie = reader.next();
+        assertEquals(6, movie.getMovieId());
+        assertEquals("[{\"id\": 10752, \"name\": \"War\"}]", movie.getGenres());
+        assertEquals(2, reader.getRecordNumber());
+    }
+
+    private static MovieRecordReader reader(String content, ImportFormat format) {
+        return new MovieRecordReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format);
+    }
+}
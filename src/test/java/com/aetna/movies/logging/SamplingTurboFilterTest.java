@@ -0,0 +1,90 @@
+package com.aetna.movies.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+
+class SamplingTurboFilterTest {
+
+    private static final int EVENTS = 10_000;
+
+    private final LoggerContext context = new LoggerContext();
+    private SamplingTurboFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.setLoggerName("com.aetna.movies.service");
+        filter.setSampleRate(4);
+        filter.start();
+    }
+
+    @Test
+    void testDecide_SamplesInfoEventsOfConfiguredLoggers() {
+        // Arrange
+        Logger logger = context.getLogger("com.aetna.movies.service.MoviesServiceImpl");
+
+        // Act
+        int passed = 0;
+        for (int i = 0; i < EVENTS; i++) {
+            if (filter.decide(null, logger, Level.INFO, "Page {} of {}", new Object[] { 1, 50 }, null)
+                    == FilterReply.NEUTRAL) {
+                passed++;
+            }
+        }
+
+        // Assert
+        assertTrue(passed > EVENTS / 4 - 500 && passed < EVENTS / 4 + 500, "Passed: " + passed);
+    }
+
+    @Test
+    void testDecide_NeverSamplesOtherLevelsLoggersOrErrors() {
+        // Arrange
+        Logger service = context.getLogger("com.aetna.movies.service.MoviesServiceImpl");
+        Logger similarName = context.getLogger("com.aetna.movies.serviceregistry.Client");
+
+        // Act & Assert
+        for (int i = 0; i < 100; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, service, Level.WARN, "Slow {}", null, null));
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, service, Level.ERROR, "Failed {}", null, null));
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, similarName, Level.INFO, "Page {}", null, null));
+            assertEquals(FilterReply.NEUTRAL,
+                    filter.decide(null, service, Level.INFO, "Failed {}", null, new IllegalStateException()));
+            // isInfoEnabled() checks carry no format
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, service, Level.INFO, null, null, null));
+        }
+    }
+
+    @Test
+    void testDecide_SampleRateOneLogsEverything() {
+        // Arrange
+        filter.setSampleRate(1);
+        Logger logger = context.getLogger("com.aetna.movies.service");
+
+        // Act & Assert
+        for (int i = 0; i < 100; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, logger, Level.INFO, "Page {}", null, null));
+        }
+    }
+
+    @Test
+    void testStart_RequiresLoggerName() {
+        // Arrange
+        SamplingTurboFilter unnamed = new SamplingTurboFilter();
+        unnamed.setContext(context);
+
+        // Act
+        unnamed.start();
+
+        // Assert
+        assertFalse(unnamed.isStarted());
+    }
+}
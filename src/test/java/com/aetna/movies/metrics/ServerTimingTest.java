@@ -0,0 +1,38 @@
+package com.aetna.movies.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class ServerTimingTest {
+
+    @Test
+    void testHeader_ListsRecordedStagesInOrder() {
+        // Arrange
+        ServerTiming serverTiming = new ServerTiming();
+        serverTiming.record(StageMetrics.MAPPING, TimeUnit.MICROSECONDS.toNanos(250), true);
+        serverTiming.record(StageMetrics.QUERY, TimeUnit.MILLISECONDS.toNanos(3), true);
+        serverTiming.record(StageMetrics.QUERY, TimeUnit.MICROSECONDS.toNanos(1040), true);
+        serverTiming.record(StageMetrics.RATINGS, TimeUnit.MILLISECONDS.toNanos(12), false);
+
+        // Act
+        String header = serverTiming.header();
+
+        // Assert
+        assertTrue(header.startsWith("query;dur=4.0;desc=\"2 calls\", mapping;dur=0.3, ratings;dur=12.0;desc=\"error\", "
+                + "app;dur="), header);
+    }
+
+    @Test
+    void testSerializationHeader_EmptyUntilRecorded() {
+        // Arrange
+        ServerTiming serverTiming = new ServerTiming();
+
+        // Act & Assert
+        assertEquals("", serverTiming.serializationHeader());
+        serverTiming.record(StageMetrics.SERIALIZATION, TimeUnit.MICROSECONDS.toNanos(1500), true);
+        assertEquals("serialization;dur=1.5", serverTiming.serializationHeader());
+    }
+}
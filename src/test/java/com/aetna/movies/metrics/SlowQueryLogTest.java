@@ -0,0 +1,71 @@
+package com.aetna.movies.metrics;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SlowQueryLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testEntries_KeepsNewestUpToCapacity() {
+        // Arrange
+        SlowQueryLog slowQueryLog = new SlowQueryLog(new SimpleMeterRegistry(), 100, 2);
+
+        // Act
+        for (int i = 1; i <= 3; i++) {
+            slowQueryLog.add(new SlowQuery(Instant.now(), "SELECT " + i, List.of(), i, StageMetrics.QUERY, null,
+                    List.of(), false));
+        }
+
+        // Assert
+        assertEquals(List.of("SELECT 3", "SELECT 2"), slowQueryLog.entries().stream().map(SlowQuery::sql).toList());
+    }
+
+    @Test
+    void testRecord_CapturesParametersAndPlan() {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SlowQueryLog slowQueryLog = new SlowQueryLog(meterRegistry, 0, 10);
+        DataSource dataSource = new StatementTimingDataSource(
+                new DriverManagerDataSource("jdbc:sqlite:" + directory.resolve("movies.db")),
+                () -> new StageMetrics(meterRegistry), () -> slowQueryLog);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE movies (movieId INTEGER PRIMARY KEY, title TEXT)");
+        slowQueryLog.clear();
+
+        // Act
+        jdbcTemplate.queryForList("SELECT movieId FROM movies WHERE title = ?", Integer.class, "Heat");
+
+        // Assert
+        SlowQuery slowQuery = slowQueryLog.entries().get(0);
+        assertEquals("SELECT movieId FROM movies WHERE title = ?", slowQuery.sql());
+        assertEquals(List.of("Heat"), slowQuery.parameters());
+        assertEquals(StageMetrics.QUERY, slowQuery.stage());
+        assertTrue(slowQuery.fullScan(), slowQuery.plan().toString());
+        assertEquals(1.0, meterRegistry.get("movies.db.slow.queries").tag("full_scan", "true").counter().count());
+    }
+
+    @Test
+    void testIsFullScan_IgnoresIndexedScans() {
+        // Act & Assert
+        assertTrue(SlowQueryLog.isFullScan("SCAN movies"));
+        assertTrue(SlowQueryLog.isFullScan("SCAN TABLE movies"));
+        assertFalse(SlowQueryLog.isFullScan("SCAN movies USING INDEX idx_movies_title"));
+        assertFalse(SlowQueryLog.isFullScan("SEARCH movies USING INTEGER PRIMARY KEY (rowid=?)"));
+    }
+}
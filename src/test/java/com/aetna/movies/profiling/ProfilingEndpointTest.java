@@ -0,0 +1,53 @@
+package com.aetna.movies.profiling;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class ProfilingEndpointTest {
+
+    private final ProfilingEndpoint endpoint = new ProfilingEndpoint(60, 600, 100);
+
+    @AfterEach
+    void tearDown() {
+        endpoint.discard();
+    }
+
+    @Test
+    void testStop_DownloadsRecordingWithMoviesEvents() throws Exception {
+        // Arrange
+        endpoint.start(30L, "default");
+        RatingsCallEvent event = new RatingsCallEvent();
+        event.begin();
+        event.movieIds = 50;
+        event.status = 200;
+        event.commit();
+
+        // Act
+        WebEndpointResponse<Resource> response = endpoint.stop();
+
+        // Assert
+        assertEquals(WebEndpointResponse.STATUS_OK, response.getStatus());
+        List<RecordedEvent> events = RecordingFile.readAllEvents(response.getBody().getFile().toPath());
+        assertTrue(events.stream().anyMatch(recorded -> recorded.getEventType().getName()
+                .equals("com.aetna.movies.RatingsCall") && recorded.getInt("movieIds") == 50));
+    }
+
+    @Test
+    void testStart_RejectsUnboundedDuration() {
+        // Act
+        WebEndpointResponse<?> response = endpoint.start(3_600L, null);
+
+        // Assert
+        assertEquals(WebEndpointResponse.STATUS_BAD_REQUEST, response.getStatus());
+        assertEquals("NONE", endpoint.recording().get("state"));
+    }
+}
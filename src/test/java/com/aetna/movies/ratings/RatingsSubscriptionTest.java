@@ -0,0 +1,125 @@
+package com.aetna.movies.ratings;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aetna.movies.catalog.CatalogService;
+import com.aetna.movies.catalog.CatalogSnapshot;
+import com.aetna.movies.entity.MovieEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RatingsSubscriptionTest {
+
+    private StubRatingsFeed feed;
+    private RatingsStore ratingsStore;
+    private CatalogService catalogService;
+    private RatingsSubscription subscription;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        feed = new StubRatingsFeed();
+        ratingsStore = new RatingsStore(120);
+        catalogService = mock(CatalogService.class);
+        subscription = new RatingsSubscription(ratingsStore, catalogService, new ObjectMapper(),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(subscription, "streamUrl", feed.url("/stream"));
+        ReflectionTestUtils.setField(subscription, "ratingsEndpoint", feed.url("/ratings"));
+        ReflectionTestUtils.setField(subscription, "pollBatchSize", 2);
+        ReflectionTestUtils.setField(subscription, "running", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        subscription.stop();
+        feed.close();
+    }
+
+    @Test
+    void testStream_AppliesEventsAndResumesFromLastEventId() throws Exception {
+        // Arrange
+        feed.enqueue(": heartbeat\n\nid: 41\ndata: {\"movieId\": 1, \"rating\": 4.0}\n\n");
+        feed.enqueue("id: 42\ndata: [{\"movieId\": 2, \"rating\": 2.5},\ndata: {\"movieId\": 1, \"rating\": 3.0}]\n\n");
+
+        // Act
+        subscription.stream();
+        subscription.stream();
+
+        // Assert
+        assertEquals(List.of("null", "41"), feed.lastEventIds());
+        assertEquals("42", ratingsStore.getLastEventId());
+        assertEquals(3.0, ratingsStore.get(1));
+        assertEquals(2.5, ratingsStore.get(2));
+        assertFalse(ratingsStore.isFresh());
+    }
+
+    @Test
+    void testStream_SkipsMalformedEventAndAdvancesLastEventId() throws Exception {
+        // Arrange
+        feed.enqueue("id: 41\ndata: {\"movieId\": 1,\n\nid: 42\ndata: {\"movieId\": 2, \"rating\": 2.5}\n\n");
+
+        // Act
+        subscription.stream();
+
+        // Assert
+        assertEquals("42", ratingsStore.getLastEventId());
+        assertNull(ratingsStore.get(1));
+        assertEquals(2.5, ratingsStore.get(2));
+    }
+
+    @Test
+    void testStream_ErrorStatusFails() {
+        // Arrange
+        feed.failStream(503);
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> subscription.stream());
+    }
+
+    @Test
+    void testPoll_LoadsEveryCatalogMovieInBatches() throws Exception {
+        // Arrange
+        when(catalogService.current()).thenReturn(CatalogSnapshot.build(List.of(movie(1), movie(2), movie(3))));
+
+        // Act
+        boolean loaded = subscription.poll();
+
+        // Assert
+        assertTrue(loaded);
+        assertTrue(ratingsStore.isFresh());
+        assertEquals(2, feed.ratingsRequests().size());
+        assertEquals(0.5, ratingsStore.get(1));
+        assertEquals(1.5, ratingsStore.get(3));
+    }
+
+    @Test
+    void testPoll_EmptyCatalogLoadsNothing() throws Exception {
+        // Arrange
+        when(catalogService.current()).thenReturn(CatalogSnapshot.empty());
+
+        // Act & Assert
+        assertFalse(subscription.poll());
+        assertFalse(ratingsStore.isLoaded());
+    }
+
+    private static MovieEntity movie(int movieId) {
+        MovieEntity movie = new MovieEntity();
+        movie.setMovieId(movieId);
+        movie.setTitle("Movie " + movieId);
+        movie.setGenres("[{\"name\":\"Action\"}]");
+        return movie;
+    }
+}
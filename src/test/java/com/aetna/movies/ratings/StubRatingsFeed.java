@@ -0,0 +1,92 @@
+package com.aetna.movies.ratings;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Local stand-in for the ratings service: /stream serves one queued SSE body per connection and then
+// ends it, /ratings answers bulk lookups with rating = movieId / 2
+class StubRatingsFeed implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Queue<String> streams = new ConcurrentLinkedQueue<>();
+    private final List<String> lastEventIds = new CopyOnWriteArrayList<>();
+    private final List<String> ratingsRequests = new CopyOnWriteArrayList<>();
+    private volatile int streamStatus = 200;
+
+    StubRatingsFeed() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/stream", this::stream);
+        server.createContext("/ratings", this::ratings);
+        server.start();
+    }
+
+    String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    void enqueue(String sseBody) {
+        streams.add(sseBody);
+    }
+
+    void failStream(int status) {
+        streamStatus = status;
+    }
+
+    List<String> lastEventIds() {
+        return lastEventIds;
+    }
+
+    List<String> ratingsRequests() {
+        return ratingsRequests;
+    }
+
+    private void stream(HttpExchange exchange) throws IOException {
+        lastEventIds.add(String.valueOf(exchange.getRequestHeaders().getFirst("Last-Event-ID")));
+        if (streamStatus != 200) {
+            exchange.sendResponseHeaders(streamStatus, -1);
+            exchange.close();
+            return;
+        }
+        String body = streams.poll();
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            if (body != null) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private void ratings(HttpExchange exchange) throws IOException {
+        String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        ratingsRequests.add(request);
+        StringBuilder response = new StringBuilder("[");
+        for (int movieId : objectMapper.readValue(request, int[].class)) {
+            if (response.length() > 1) {
+                response.append(',');
+            }
+            response.append("{\"movieId\":").append(movieId).append(",\"rating\":").append(movieId / 2.0).append('}');
+        }
+        byte[] bytes = response.append(']').toString().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,36 @@
+package com.aetna.movies.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+class MovieSortTest {
+
+    @Test
+    void testParse_FieldAndDirection() {
+        // Act
+        Sort sort = MovieSort.parse("releaseDate,DESC");
+
+        // Assert
+        assertEquals(Sort.by(Sort.Direction.DESC, "releaseDate", "movieId"), sort);
+        assertEquals(MovieSort.RELEASE_DATE, MovieSort.of(sort));
+        assertEquals(" ORDER BY releaseDate DESC, movieId DESC",
+                MovieSort.of(sort).orderBy(MovieSort.directionOf(sort)));
+    }
+
+    @Test
+    void testParse_DefaultsToTitleAscending() {
+        // Act & Assert
+        assertEquals(MovieSort.DEFAULT, MovieSort.parse(null));
+        assertEquals(Sort.by(Sort.Direction.ASC, "budget", "movieId"), MovieSort.parse("budget"));
+    }
+
+    @Test
+    void testParse_RejectsUnindexedFieldsAndBadDirections() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> MovieSort.parse("overview"));
+        assertThrows(IllegalArgumentException.class, () -> MovieSort.parse("title,sideways"));
+        assertThrows(IllegalArgumentException.class, () -> MovieSort.parse("title,asc,movieId"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.aetna.movies.repository;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.aetna.movies.entity.MovieEntity;
+
+class ShardedMovieStoreTest {
+
+    private static final int SHARDS = 3;
+    private static final String[] TITLES = { "Heat", "Alien", "Fargo", "Casino", "Brazil", "Dune", "Gattaca" };
+
+    @TempDir
+    Path directory;
+
+    private ShardedMovieStore movieStore;
+
+    @BeforeEach
+    void setUp() {
+        List<DataSource> shards = new ArrayList<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            DataSource dataSource = new DriverManagerDataSource(
+                    "jdbc:sqlite:" + directory.resolve("movies-" + shard + ".db"));
+            new JdbcTemplate(dataSource).execute("CREATE TABLE movies (movieId INTEGER PRIMARY KEY, imdbId TEXT, "
+                    + "title TEXT, overview TEXT, productionCompanies TEXT, releaseDate TEXT, budget INTEGER, "
+                    + "revenue REAL, runtime REAL, language TEXT, genres TEXT, status TEXT, "
+                    + "changeVersion INTEGER NOT NULL DEFAULT 0)");
+            shards.add(dataSource);
+        }
+        for (int movieId = 1; movieId <= TITLES.length; movieId++) {
+            String genres = movieId % 2 == 0
+                    ? "[{\"id\": 28, \"name\": \"Action\"}]"
+                    : "[{\"id\": 18, \"name\": \"Drama\"}]";
+            new JdbcTemplate(shards.get(ShardedMovieStore.shardOf(movieId, SHARDS))).update(
+                    "INSERT INTO movies (movieId, title, releaseDate, revenue, genres) VALUES (?, ?, ?, ?, ?)",
+                    movieId, TITLES[movieId - 1], (1990 + movieId % 2) + "-01-01", movieId % 3 * 100.0, genres);
+        }
+        movieStore = new ShardedMovieStore(shards, Runnable::run);
+    }
+
+    @Test
+    void testShardOf_SpreadsConsecutiveIdsEvenly() {
+        // Arrange
+        int[] counts = new int[4];
+
+        // Act
+        for (int movieId = 1; movieId <= 10_000; movieId++) {
+            counts[ShardedMovieStore.shardOf(movieId, counts.length)]++;
+        }
+
+        // Assert
+        for (int count : counts) {
+            assertTrue(count > 2_250 && count < 2_750, "Uneven shard size: " + count);
+        }
+    }
+
+    @Test
+    void testFindAll_MergesShardsInTitleOrder() {
+        // Act
+        Page<MovieEntity> page = movieStore.findAll(PageRequest.of(1, 3));
+
+        // Assert
+        assertEquals(List.of("Dune", "Fargo", "Gattaca"),
+                page.getContent().stream().map(MovieEntity::getTitle).toList());
+        assertEquals(TITLES.length, page.getTotalElements());
+    }
+
+    @Test
+    void testFindAll_MergesShardsInRequestedSortWithMovieIdTieBreak() {
+        // Act
+        Page<MovieEntity> page = movieStore.findAll(PageRequest.of(0, 4, MovieSort.parse("revenue,desc")));
+
+        // Assert
+        assertEquals(List.of("Brazil", "Heat", "Gattaca", "Casino"),
+                page.getContent().stream().map(MovieEntity::getTitle).toList());
+        assertEquals(TITLES.length, page.getTotalElements());
+    }
+
+    @Test
+    void testGetMoviesByGenre_FiltersOnEveryShard() {
+        // Act
+        Page<MovieEntity> page = movieStore.getMoviesByGenre("Action", PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(List.of("Alien", "Casino", "Dune"),
+                page.getContent().stream().map(MovieEntity::getTitle).toList());
+        assertEquals(3, page.getTotalElements());
+    }
+
+    @Test
+    void testFindById_ReadsOwningShard() {
+        // Act & Assert
+        assertEquals("Brazil", movieStore.findById(5).orElseThrow().getTitle());
+        assertTrue(movieStore.findById(42).isEmpty());
+    }
+}
@@ -1,6 +1,7 @@
 package com.aetna.movies.service;
 
 import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -10,6 +11,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
@@ -17,20 +19,35 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import com.aetna.movies.catalog.CatalogService;
+import com.aetna.movies.catalog.CatalogSnapshot;
+import com.aetna.movies.catalog.CatalogTopN;
+import com.aetna.movies.config.Deadline;
+import com.aetna.movies.config.RequestContextHolder;
 import com.aetna.movies.dto.Movie;
+import com.aetna.movies.dto.Rating;
 import com.aetna.movies.entity.MovieEntity;
+import com.aetna.movies.exception.DeadlineExceededException;
 import com.aetna.movies.exception.MoviesServiceException;
+import com.aetna.movies.metrics.StageMetrics;
+import com.aetna.movies.ratings.RatingsStore;
+import com.aetna.movies.repository.MovieChangesRepository;
+import com.aetna.movies.repository.MovieSort;
 import com.aetna.movies.repository.MoviesRepository;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 class MoviesServiceImplTest {
 
     @Mock
@@ -42,17 +59,41 @@ class MoviesServiceImplTest {
     @Mock
     private HttpResponse<String> httpResponse;
 
+    @Mock
+    private CatalogService catalogService;
+
+    @Mock
+    private MovieChangesRepository movieChangesRepository;
+
+    @Spy
+    private StageMetrics stageMetrics = new StageMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private RequestCollapser requestCollapser = new RequestCollapser(new SimpleMeterRegistry(), true);
+
+    @Spy
+    private RatingsStore ratingsStore = new RatingsStore(120);
+
     @InjectMocks
     private MoviesServiceImpl moviesService;
 
     private MovieEntity movieEntity;
 
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.clear();
+    }
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
         
         // Set the ratings API endpoint
         ReflectionTestUtils.setField(moviesService, "RATINGS_API_ENDPOINT", "http://localhost:8081/api/v1/ratings/movies");
+        ReflectionTestUtils.setField(moviesService, "includeRatingsForAll", true);
+        ReflectionTestUtils.setField(moviesService, "includeRatingsForYear", false);
+        ReflectionTestUtils.setField(moviesService, "includeRatingsForGenre", true);
+        ReflectionTestUtils.setField(moviesService, "includeRatingsForDetails", true);
         
         // Setup common movie entity
         movieEntity = new MovieEntity();
@@ -73,7 +114,7 @@ class MoviesServiceImplTest {
         when(restClientService.post(anyString(), anyString())).thenReturn(httpResponse);
 
         // Act
-        List<Movie> movies = moviesService.getAllMovies(0, 10);
+        List<Movie> movies = moviesService.getAllMovies(0, 10, MovieSort.DEFAULT, null);
 
         // Assert
         assertNotNull(movies);
@@ -90,7 +131,7 @@ class MoviesServiceImplTest {
         when(moviesRepository.findAll(any(Pageable.class))).thenReturn(emptyPage);
 
         // Act
-        List<Movie> movies = moviesService.getAllMovies(0, 10);
+        List<Movie> movies = moviesService.getAllMovies(0, 10, MovieSort.DEFAULT, null);
 
         // Assert
         assertNotNull(movies);
@@ -107,7 +148,7 @@ class MoviesServiceImplTest {
         when(restClientService.post(anyString(), anyString())).thenReturn(httpResponse);
 
         // Act
-        List<Movie> movies = moviesService.getAllMovies(0, 10);
+        List<Movie> movies = moviesService.getAllMovies(0, 10, MovieSort.DEFAULT, null);
 
         // Assert
         assertNotNull(movies);
@@ -123,7 +164,7 @@ class MoviesServiceImplTest {
         when(restClientService.post(anyString(), anyString())).thenThrow(new RuntimeException("Service unavailable"));
 
         // Act
-        List<Movie> movies = moviesService.getAllMovies(0, 10);
+        List<Movie> movies = moviesService.getAllMovies(0, 10, MovieSort.DEFAULT, null);
 
         // Assert
         assertNotNull(movies);
@@ -138,7 +179,7 @@ class MoviesServiceImplTest {
         when(moviesRepository.getMoviesByYear(eq(2022), any(Pageable.class))).thenReturn(moviePage);
 
         // Act
-        List<Movie> movies = moviesService.getAllMoviesByYear(2022, 0, 10);
+        List<Movie> movies = moviesService.getAllMoviesByYear(2022, 0, 10, MovieSort.DEFAULT, null);
 
         // Assert
         assertNotNull(movies);
@@ -147,6 +188,115 @@ class MoviesServiceImplTest {
         verify(moviesRepository, times(1)).getMoviesByYear(eq(2022), any(Pageable.class));
     }
 
+    @Test
+    void testGetAllMoviesByYear_IncludeRatings() throws Exception {
+        // Arrange
+        Page<MovieEntity> moviePage = new PageImpl<>(Collections.singletonList(movieEntity));
+        when(moviesRepository.getMoviesByYear(eq(2022), any(Pageable.class))).thenReturn(moviePage);
+        when(restClientService.post(anyString(), anyString())).thenReturn(httpResponse);
+
+        // Act
+        List<Movie> movies = moviesService.getAllMoviesByYear(2022, 0, 10, MovieSort.DEFAULT, true);
+
+        // Assert
+        assertEquals(4.5, movies.get(0).getMovieRating());
+        verify(restClientService, times(1)).post(anyString(), anyString());
+    }
+
+    @Test
+    void testGetAllMovies_RatingsExcluded() throws Exception {
+        // Arrange
+        Page<MovieEntity> moviePage = new PageImpl<>(Collections.singletonList(movieEntity));
+        when(moviesRepository.findAll(any(Pageable.class))).thenReturn(moviePage);
+
+        // Act
+        List<Movie> movies = moviesService.getAllMovies(0, 10, MovieSort.DEFAULT, false);
+
+        // Assert
+        assertEquals(0.0, movies.get(0).getMovieRating());
+        verify(restClientService, never()).post(anyString(), anyString());
+    }
+
+    @Test
+    void testGetAllMovies_SkipsRatingsWhenBudgetTooSmall() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(moviesService, "minRatingsBudgetMillis", 50L);
+        Page<MovieEntity> moviePage = new PageImpl<>(Collections.singletonList(movieEntity));
+        when(moviesRepository.findAll(any(Pageable.class))).thenReturn(moviePage);
+        RequestContextHolder.setDeadline(Deadline.after(Duration.ofMillis(20)));
+
+        // Act
+        List<Movie> movies = moviesService.getAllMovies(0, 10, MovieSort.DEFAULT, true);
+
+        // Assert
+        assertEquals(1, movies.size());
+        verify(restClientService, never()).post(anyString(), anyString());
+    }
+
+    @Test
+    void testGetAllMovies_RatingsFromFreshStore() throws Exception {
+        // Arrange
+        Page<MovieEntity> moviePage = new PageImpl<>(Collections.singletonList(movieEntity));
+        when(moviesRepository.findAll(any(Pageable.class))).thenReturn(moviePage);
+        when(ratingsStore.isFresh()).thenReturn(true);
+        ratingsStore.put(1, 3.5);
+
+        // Act
+        List<Movie> movies = moviesService.getAllMovies(0, 10, MovieSort.DEFAULT, true);
+
+        // Assert
+        assertEquals(3.5, movies.get(0).getMovieRating());
+        verify(restClientService, never()).post(anyString(), anyString());
+    }
+
+    @Test
+    void testGetAllMovies_FreshStoreFallsBackForMissingRatings() throws Exception {
+        // Arrange
+        MovieEntity unrated = new MovieEntity();
+        unrated.setMovieId(2);
+        unrated.setTitle("Unrated Movie");
+        unrated.setGenres("[{\"name\":\"Drama\"}]");
+        when(moviesRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(movieEntity, unrated)));
+        when(ratingsStore.isFresh()).thenReturn(true);
+        ratingsStore.put(1, 3.5);
+        when(httpResponse.body()).thenReturn("[{\"movieId\":2,\"rating\":2.0}]");
+        when(restClientService.post(anyString(), eq("[2]"))).thenReturn(httpResponse);
+
+        // Act
+        List<Movie> movies = moviesService.getAllMovies(0, 10, MovieSort.DEFAULT, true);
+
+        // Assert
+        assertEquals(3.5, movies.get(0).getMovieRating());
+        assertEquals(2.0, movies.get(1).getMovieRating());
+        verify(stageMetrics).record(eq(StageMetrics.RATINGS), eq(StageMetrics.OUTCOME_STORE), any());
+    }
+
+    @Test
+    void testGetRatings_ReturnsPatchesWithoutModifyingMovies() throws Exception {
+        // Arrange
+        Movie movie = new Movie();
+        movie.setMovieId(1);
+        when(restClientService.post(anyString(), anyString())).thenReturn(httpResponse);
+
+        // Act
+        List<Rating> ratings = moviesService.getRatings(List.of(movie));
+
+        // Assert
+        assertEquals(1, ratings.size());
+        assertEquals(4.5, ratings.get(0).getRating());
+        assertEquals(0.0, movie.getMovieRating());
+    }
+
+    @Test
+    void testGetAllMovies_DeadlineExceeded() {
+        // Arrange
+        RequestContextHolder.setDeadline(new Deadline(System.nanoTime()));
+
+        // Act & Assert
+        assertThrows(DeadlineExceededException.class, () -> moviesService.getAllMovies(0, 10, MovieSort.DEFAULT, null));
+        verify(moviesRepository, never()).findAll(any(Pageable.class));
+    }
+
     @Test
     void testGetAllMoviesByYear_EmptyResult() {
         // Arrange
@@ -154,7 +304,7 @@ class MoviesServiceImplTest {
         when(moviesRepository.getMoviesByYear(eq(2022), any(Pageable.class))).thenReturn(emptyPage);
 
         // Act
-        List<Movie> movies = moviesService.getAllMoviesByYear(2022, 0, 10);
+        List<Movie> movies = moviesService.getAllMoviesByYear(2022, 0, 10, MovieSort.DEFAULT, null);
 
         // Assert
         assertNotNull(movies);
@@ -168,7 +318,7 @@ class MoviesServiceImplTest {
             .thenThrow(new RuntimeException("Database error"));
 
         // Act & Assert
-        assertThrows(MoviesServiceException.class, () -> moviesService.getAllMoviesByYear(2022, 0, 10));
+        assertThrows(MoviesServiceException.class, () -> moviesService.getAllMoviesByYear(2022, 0, 10, MovieSort.DEFAULT, null));
     }
 
     @Test
@@ -184,7 +334,7 @@ class MoviesServiceImplTest {
         when(restClientService.post(anyString(), anyString())).thenReturn(httpResponse);
 
         // Act
-        List<Movie> movies = moviesService.getAllMoviesByGenre("Action", 0, 10);
+        List<Movie> movies = moviesService.getAllMoviesByGenre("Action", 0, 10, MovieSort.DEFAULT, null);
 
         // Assert
         assertNotNull(movies);
@@ -201,7 +351,7 @@ class MoviesServiceImplTest {
         when(moviesRepository.getMoviesByGenre(eq("Action"), any(Pageable.class))).thenReturn(emptyPage);
 
         // Act
-        List<Movie> movies = moviesService.getAllMoviesByGenre("Action", 0, 10);
+        List<Movie> movies = moviesService.getAllMoviesByGenre("Action", 0, 10, MovieSort.DEFAULT, null);
 
         // Assert
         assertNotNull(movies);
@@ -211,19 +361,19 @@ class MoviesServiceImplTest {
     @Test
     void testGetAllMoviesByGenre_NullGenre() {
         // Act & Assert
-        assertThrows(IllegalArgumentException.class, () -> moviesService.getAllMoviesByGenre(null, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> moviesService.getAllMoviesByGenre(null, 0, 10, MovieSort.DEFAULT, null));
     }
 
     @Test
     void testGetAllMoviesByGenre_EmptyGenre() {
         // Act & Assert
-        assertThrows(IllegalArgumentException.class, () -> moviesService.getAllMoviesByGenre("", 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> moviesService.getAllMoviesByGenre("", 0, 10, MovieSort.DEFAULT, null));
     }
 
     @Test
     void testGetAllMoviesByGenre_WhitespaceGenre() {
         // Act & Assert
-        assertThrows(IllegalArgumentException.class, () -> moviesService.getAllMoviesByGenre("   ", 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> moviesService.getAllMoviesByGenre("   ", 0, 10, MovieSort.DEFAULT, null));
     }
 
     @Test
@@ -241,7 +391,7 @@ class MoviesServiceImplTest {
         when(restClientService.post(anyString(), anyString())).thenReturn(httpResponse);
 
         // Act
-        List<Movie> movies = moviesService.getAllMoviesByGenre("Action", 0, 10);
+        List<Movie> movies = moviesService.getAllMoviesByGenre("Action", 0, 10, MovieSort.DEFAULT, null);
 
         // Assert
         assertNotNull(movies);
@@ -256,7 +406,25 @@ class MoviesServiceImplTest {
             .thenThrow(new RuntimeException("Database error"));
 
         // Act & Assert
-        assertThrows(MoviesServiceException.class, () -> moviesService.getAllMoviesByGenre("Action", 0, 10));
+        assertThrows(MoviesServiceException.class, () -> moviesService.getAllMoviesByGenre("Action", 0, 10, MovieSort.DEFAULT, null));
+    }
+
+    @Test
+    void testGetTopMovies_Success() throws Exception {
+        // Arrange
+        movieEntity.setReleaseDate("1995-10-30");
+        movieEntity.setRevenue(1000);
+        when(catalogService.current()).thenReturn(CatalogSnapshot.build(List.of(movieEntity)));
+        when(restClientService.post(anyString(), anyString())).thenReturn(httpResponse);
+
+        // Act
+        List<Movie> movies = moviesService.getTopMovies(CatalogTopN.Metric.REVENUE, 1995, "Action", 10);
+
+        // Assert
+        assertEquals(1, movies.size());
+        assertEquals("Test Movie", movies.get(0).getTitle());
+        assertEquals(4.5, movies.get(0).getMovieRating());
+        verify(restClientService, times(1)).post(anyString(), anyString());
     }
 
     @Test
@@ -266,7 +434,7 @@ class MoviesServiceImplTest {
         when(restClientService.post(anyString(), anyString())).thenReturn(httpResponse);
 
         // Act
-        Movie movie = moviesService.getMovieDetails(1);
+        Movie movie = moviesService.getMovieDetails(1, null);
 
         // Assert
         assertNotNull(movie);
@@ -282,9 +450,24 @@ class MoviesServiceImplTest {
         when(moviesRepository.findById(1)).thenReturn(Optional.empty());
 
         // Act & Assert
-        Movie movie = moviesService.getMovieDetails(1);
+        Movie movie = moviesService.getMovieDetails(1, null);
         assertNull(movie);
         verify(moviesRepository, times(1)).findById(1);
+        verify(catalogService, times(1)).movieNotFound(1);
+    }
+
+    @Test
+    void testGetMovieDetails_KnownAbsentSkipsDatabaseAndRatings() throws Exception {
+        // Arrange
+        when(catalogService.isKnownAbsent(42)).thenReturn(true);
+
+        // Act
+        Movie movie = moviesService.getMovieDetails(42, true);
+
+        // Assert
+        assertNull(movie);
+        verify(moviesRepository, never()).findById(any());
+        verify(restClientService, never()).post(anyString(), anyString());
     }
 
     @Test
@@ -295,7 +478,7 @@ class MoviesServiceImplTest {
         when(restClientService.post(anyString(), anyString())).thenReturn(httpResponse);
 
         // Act
-        Movie movie = moviesService.getMovieDetails(1);
+        Movie movie = moviesService.getMovieDetails(1, null);
 
         // Assert
         assertNotNull(movie);
@@ -310,7 +493,7 @@ class MoviesServiceImplTest {
         when(restClientService.post(anyString(), anyString())).thenThrow(new RuntimeException("Service unavailable"));
 
         // Act
-        Movie movie = moviesService.getMovieDetails(1);
+        Movie movie = moviesService.getMovieDetails(1, null);
 
         // Assert
         assertNotNull(movie);
@@ -0,0 +1,137 @@
+package com.aetna.movies.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RequestCollapserTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestCollapser requestCollapser;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        requestCollapser = new RequestCollapser(meterRegistry, true);
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testExecute_ConcurrentIdenticalCallsShareOneExecution() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        List<String> result = List.of("Heat");
+        CompletableFuture<List<String>> leader = CompletableFuture.supplyAsync(() -> requestCollapser.execute(
+                "getAllMoviesByGenre", List.of("Action", 1, 50), () -> {
+                    executions.incrementAndGet();
+                    await(release);
+                    return result;
+                }), executor);
+        while (executions.get() == 0) {
+            Thread.onSpinWait();
+        }
+
+        // Act
+        CompletableFuture<List<String>> follower = CompletableFuture.supplyAsync(() -> requestCollapser.execute(
+                "getAllMoviesByGenre", List.of("Action", 1, 50), () -> {
+                    executions.incrementAndGet();
+                    return List.of();
+                }), executor);
+        while (meterRegistry.find("movies.requests.collapsed").counter() == null) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        // Assert
+        assertSame(result, leader.get(5, TimeUnit.SECONDS));
+        assertSame(result, follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+        assertEquals(1.0, meterRegistry.get("movies.requests.collapsed").tag("operation", "getAllMoviesByGenre")
+                .counter().count());
+    }
+
+    @Test
+    void testExecute_FollowerRunsItselfWhenLeaderDegraded() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        List<String> degraded = List.of("Heat");
+        List<String> full = List.of("Heat", "8.3");
+        CompletableFuture<List<String>> leader = CompletableFuture.supplyAsync(() -> requestCollapser.execute(
+                "getMovieDetails", List.of(949, true), () -> {
+                    executions.incrementAndGet();
+                    await(release);
+                    requestCollapser.markDegraded();
+                    return degraded;
+                }), executor);
+        while (executions.get() == 0) {
+            Thread.onSpinWait();
+        }
+
+        // Act
+        CompletableFuture<List<String>> follower = CompletableFuture.supplyAsync(() -> requestCollapser.execute(
+                "getMovieDetails", List.of(949, true), () -> {
+                    executions.incrementAndGet();
+                    return full;
+                }), executor);
+        while (meterRegistry.find("movies.requests.collapsed").counter() == null) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        // Assert
+        assertSame(degraded, leader.get(5, TimeUnit.SECONDS));
+        assertSame(full, follower.get(5, TimeUnit.SECONDS));
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void testExecute_RunsAgainOnceCompleted() {
+        // Arrange
+        AtomicInteger executions = new AtomicInteger();
+
+        // Act
+        requestCollapser.execute("getMovieDetails", List.of(7, true), executions::incrementAndGet);
+        requestCollapser.execute("getMovieDetails", List.of(7, true), executions::incrementAndGet);
+
+        // Assert
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void testExecute_PropagatesException() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> requestCollapser.execute("getAllMovies", List.of(0, 20),
+                () -> {
+                    throw new IllegalStateException("boom");
+                }));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
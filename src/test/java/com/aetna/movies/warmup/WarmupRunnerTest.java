@@ -0,0 +1,109 @@
+package com.aetna.movies.warmup;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aetna.movies.config.RequestContextHolder;
+import com.aetna.movies.dto.Movie;
+import com.aetna.movies.repository.MovieSort;
+import com.aetna.movies.service.MoviesService;
+import com.aetna.movies.service.RestClientService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WarmupRunnerTest {
+
+    @Mock
+    private MoviesService moviesService;
+
+    @Mock
+    private RestClientService restClientService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private WarmupRunner warmupRunner;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        warmupRunner = new WarmupRunner(moviesService, restClientService, Runnable::run, new ObjectMapper(),
+                meterRegistry);
+        ReflectionTestUtils.setField(warmupRunner, "ratingsEndpoint", "http://localhost:8081/api/v1/ratings/movies");
+        ReflectionTestUtils.setField(warmupRunner, "enabled", true);
+        ReflectionTestUtils.setField(warmupRunner, "iterations", 4);
+        ReflectionTestUtils.setField(warmupRunner, "maxDurationSeconds", 60L);
+        ReflectionTestUtils.setField(warmupRunner, "pageSize", 20);
+        ReflectionTestUtils.setField(warmupRunner, "pages", 2);
+        ReflectionTestUtils.setField(warmupRunner, "years", List.of(1995));
+        ReflectionTestUtils.setField(warmupRunner, "genres", List.of("Action", "Drama"));
+        ReflectionTestUtils.setField(warmupRunner, "includeRatings", true);
+        ReflectionTestUtils.setField(warmupRunner, "ratingsConnections", 3);
+    }
+
+    @Test
+    void testWarmUp_ReplaysWorkloadAndRecordsDuration() throws Exception {
+        // Arrange
+        Movie movie = new Movie();
+        movie.setMovieId(7);
+        when(moviesService.getAllMovies(anyInt(), eq(20), eq(MovieSort.DEFAULT), eq(true))).thenReturn(List.of(movie));
+
+        // Act
+        warmupRunner.warmUp();
+
+        // Assert
+        verify(restClientService, times(3)).post("http://localhost:8081/api/v1/ratings/movies", "[]");
+        verify(moviesService, times(2)).getAllMovies(0, 20, MovieSort.DEFAULT, true);
+        verify(moviesService, times(2)).getAllMovies(1, 20, MovieSort.DEFAULT, true);
+        verify(moviesService, times(4)).getMovieDetails(7, true);
+        verify(moviesService, times(4)).getAllMoviesByYear(eq(1995), anyInt(), eq(20), eq(MovieSort.DEFAULT), eq(true));
+        verify(moviesService, times(2)).getAllMoviesByGenre(eq("Drama"), anyInt(), eq(20), eq(MovieSort.DEFAULT), eq(true));
+        assertTrue(warmupRunner.getDurationNanos() > 0);
+        assertTrue(meterRegistry.get("movies.warmup.duration").timeGauge().value() > 0);
+        assertNull(RequestContextHolder.getEndpoint());
+    }
+
+    @Test
+    void testWarmUp_ContinuesAfterFailedCalls() throws Exception {
+        // Arrange
+        when(moviesService.getAllMoviesByGenre(anyString(), anyInt(), anyInt(), eq(MovieSort.DEFAULT), eq(true)))
+                .thenThrow(new IllegalStateException("boom"));
+
+        // Act
+        warmupRunner.warmUp();
+
+        // Assert
+        verify(moviesService, times(4)).getAllMoviesByGenre(anyString(), anyInt(), eq(20), eq(MovieSort.DEFAULT), eq(true));
+        verify(moviesService, never()).getMovieDetails(anyInt(), eq(true));
+        verify(moviesService, times(4)).getAllMoviesByYear(eq(1995), anyInt(), eq(20), eq(MovieSort.DEFAULT), eq(true));
+    }
+
+    @Test
+    void testWarmUp_DisabledDoesNothing() {
+        // Arrange
+        ReflectionTestUtils.setField(warmupRunner, "enabled", false);
+
+        // Act
+        warmupRunner.warmUp();
+
+        // Assert
+        verifyNoInteractions(moviesService, restClientService);
+        assertEquals(0, warmupRunner.getDurationNanos());
+    }
+}
@@ -0,0 +1,50 @@
+#!/bin/bash
+
+# Measures time-to-ready (JVM launch until /actuator/health/readiness reports UP)
+# for the plain boot jar and for the extracted jar with CDS archive + AOT initialization.
+# Usage: ./startup-benchmark.sh [runs]
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+READY_URL="http://localhost:${PORT}/actuator/health/readiness"
+DB_URL="jdbc:sqlite:$(pwd)/src/main/resources/movies.db"
+
+./gradlew -q bootJar cdsArchive || exit 1
+BOOT_JAR=$(ls build/libs/*.jar | grep -v plain | head -1)
+CDS_JAR="build/cds/$(basename "$BOOT_JAR")"
+
+time_to_ready() {
+    local start end pid
+    start=$(date +%s%N)
+    "$@" --server.port=${PORT} --spring.datasource.url="${DB_URL}" > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf "${READY_URL}" > /dev/null 2>&1; do
+        if ! kill -0 $pid 2> /dev/null; then
+            echo "failed"
+            return
+        fi
+        sleep 0.05
+    done
+    end=$(date +%s%N)
+    kill $pid && wait $pid 2> /dev/null
+    echo $(( (end - start) / 1000000 ))
+}
+
+benchmark() {
+    local name=$1
+    shift
+    local total=0 ms
+    for i in $(seq 1 "$RUNS"); do
+        ms=$(time_to_ready "$@")
+        if [ "$ms" = "failed" ]; then
+            echo "${name}: startup failed"
+            return
+        fi
+        echo "${name} run ${i}: ${ms} ms"
+        total=$((total + ms))
+    done
+    echo "${name} average: $((total / RUNS)) ms"
+}
+
+benchmark "baseline" java -jar "$BOOT_JAR"
+benchmark "cds+aot" java -XX:SharedArchiveFile=build/cds/application.jsa -Dspring.aot.enabled=true -jar "$CDS_JAR"